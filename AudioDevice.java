@@ -0,0 +1,25 @@
+// Salida del mezclador: recibe bloques de PCM y bloquea hasta poder aceptarlos, lo que marca el
+// ritmo del hilo de mezcla. Si no hay tarjeta de sonido (servidor sin audio, modo sin pantalla)
+// se usa un dispositivo nulo que descarta el audio al mismo ritmo.
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.LineUnavailableException;
+
+
+interface AudioDevice {
+    
+    void write(byte[] data, int length);
+    
+    void close();
+    
+    String getName();
+    
+    // Línea de la tarjeta de sonido con un búfer de bufferBytes (la latencia), o el dispositivo nulo
+    static AudioDevice open(AudioFormat format, int bufferBytes) {
+        try {
+            return new LineAudioDevice(format, bufferBytes);
+        } catch (LineUnavailableException | IllegalArgumentException | SecurityException e) {
+            return new NullAudioDevice(format);
+        }
+    }
+}
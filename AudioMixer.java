@@ -0,0 +1,236 @@
+// Mezclador de audio en un hilo propio: drena la SoundQueue, combina los eventos del mismo sonido
+// que llegan en un bloque en una sola voz (más fuerte cuantos más eventos) y suma hasta
+// MAX_VOICES voces sobre muestras ya decodificadas. Cien ladrillos rotos en el mismo tick suenan
+// como una voz, no como cien. Con todas las voces ocupadas se reemplaza la más avanzada (la que
+// menos le queda por sonar). El hilo de mezcla no asigna memoria ni toma cerrojos.
+
+import javax.sound.sampled.AudioFormat;
+
+
+class AudioMixer implements Runnable {
+    
+    public static final float SAMPLE_RATE = 44_100;
+    
+    // Cuadros por bloque (unos 5,8 ms) y bloques en el búfer de la línea: la latencia son unos 23 ms
+    static final int FRAMES_PER_BUFFER = 256;
+    private static final int LINE_BUFFERS = 4;
+    
+    // PCM de 16 bits en estéreo, little-endian
+    static final AudioFormat FORMAT = new AudioFormat(SAMPLE_RATE, 16, 2, true, false);
+    private static final int BYTES_PER_FRAME = 4;
+    
+    // Voces simultáneas en total y de un mismo sonido
+    static final int MAX_VOICES = 16;
+    private static final int MAX_VOICES_PER_SOUND = 4;
+    
+    // Volumen general y cuánto sube una voz por cada duplicación de los eventos combinados en ella
+    private static final float MASTER_GAIN = 0.6f;
+    private static final float COALESCED_GAIN_STEP = 0.25f;
+    private static final float MAX_VOICE_GAIN = 2;
+    
+    private final SoundQueue queue;
+    private final short[][] samples = new short[SoundQueue.SOUNDS.length][];
+    private final AudioDevice device;
+    
+    // Voces activas (las "voices" primeras): sonido, posición en la muestra y ganancia por canal
+    private final int[] voiceSound = new int[MAX_VOICES];
+    private final int[] voicePosition = new int[MAX_VOICES];
+    private final float[] voiceLeft = new float[MAX_VOICES];
+    private final float[] voiceRight = new float[MAX_VOICES];
+    private int voices;
+    
+    // Eventos del bloque actual agrupados por sonido
+    private final int[] events = new int[SoundQueue.DEFAULT_CAPACITY];
+    private final int[] pendingCount = new int[SoundQueue.SOUNDS.length];
+    private final int[] pendingPan = new int[SoundQueue.SOUNDS.length];
+    
+    // Mezcla en coma flotante y salida en bytes
+    private final float[] mixLeft = new float[FRAMES_PER_BUFFER];
+    private final float[] mixRight = new float[FRAMES_PER_BUFFER];
+    private final byte[] output = new byte[FRAMES_PER_BUFFER * BYTES_PER_FRAME];
+    
+    // Estadísticas (solo las escribe el hilo de mezcla)
+    private volatile long eventsMixed;
+    private volatile long voicesStarted;
+    private volatile long voicesStolen;
+    
+    private Thread thread;
+    private volatile boolean running;
+    
+    public AudioMixer(SoundQueue queue, SoundBank bank, AudioDevice device) {
+        if (bank.getSampleRate() != SAMPLE_RATE) {
+            throw new IllegalArgumentException("Sound bank sample rate must be " + SAMPLE_RATE);
+        }
+        this.queue = queue;
+        this.device = device;
+        for (SoundQueue.Sound sound : SoundQueue.SOUNDS) {
+            samples[sound.ordinal()] = bank.get(sound);
+        }
+    }
+    
+    // Mezclador con la tarjeta de sonido (o el dispositivo nulo si no hay)
+    public static AudioMixer open(SoundQueue queue, SoundBank bank) {
+        AudioDevice device = AudioDevice.open(FORMAT, FRAMES_PER_BUFFER * BYTES_PER_FRAME * LINE_BUFFERS);
+        return new AudioMixer(queue, bank, device);
+    }
+    
+    public void start() {
+        running = true;
+        thread = new Thread(this, "AudioMixer");
+        thread.setDaemon(true);
+        // Un bloque que llega tarde se oye: el audio va por delante del resto
+        thread.setPriority(Thread.MAX_PRIORITY);
+        thread.start();
+    }
+    
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }
+        device.close();
+    }
+    
+    @Override
+    public void run() {
+        while (running) {
+            mixBuffer();
+            device.write(output, output.length);
+        }
+    }
+    
+    // Drena los eventos, arranca una voz por sonido pendiente y mezcla un bloque en "output"
+    void mixBuffer() {
+        int count = queue.drain(events);
+        eventsMixed += count;
+        for (int i = 0; i < count; i++) {
+            int sound = SoundQueue.soundOf(events[i]).ordinal();
+            pendingCount[sound]++;
+            pendingPan[sound] += SoundQueue.panOf(events[i]);
+        }
+        for (int sound = 0; sound < pendingCount.length; sound++) {
+            int pending = pendingCount[sound];
+            if (pending > 0) {
+                float gain = Math.min(1 + COALESCED_GAIN_STEP * log2(pending), MAX_VOICE_GAIN);
+                startVoice(sound, gain, (float) pendingPan[sound] / pending / SoundQueue.PAN_MAX);
+                pendingCount[sound] = 0;
+                pendingPan[sound] = 0;
+            }
+        }
+        
+        for (int i = 0; i < FRAMES_PER_BUFFER; i++) {
+            mixLeft[i] = 0;
+            mixRight[i] = 0;
+        }
+        int v = 0;
+        while (v < voices) {
+            short[] pcm = samples[voiceSound[v]];
+            int position = voicePosition[v];
+            int frames = Math.min(FRAMES_PER_BUFFER, pcm.length - position);
+            float left = voiceLeft[v];
+            float right = voiceRight[v];
+            for (int i = 0; i < frames; i++) {
+                float sample = pcm[position + i];
+                mixLeft[i] += sample * left;
+                mixRight[i] += sample * right;
+            }
+            position += frames;
+            if (position >= pcm.length) {
+                removeVoice(v);
+                continue;
+            }
+            voicePosition[v] = position;
+            v++;
+        }
+        
+        // A 16 bits con saturación, izquierda y derecha intercalados
+        for (int i = 0; i < FRAMES_PER_BUFFER; i++) {
+            int left = clamp(mixLeft[i] * MASTER_GAIN);
+            int right = clamp(mixRight[i] * MASTER_GAIN);
+            int offset = i * BYTES_PER_FRAME;
+            output[offset] = (byte) left;
+            output[offset + 1] = (byte) (left >> 8);
+            output[offset + 2] = (byte) right;
+            output[offset + 3] = (byte) (right >> 8);
+        }
+    }
+    
+    // Nueva voz del sonido, pan de 0 (izquierda) a 1 (derecha). Si el sonido ya tiene todas sus
+    // voces o no queda ninguna libre se reemplaza la más avanzada (del sonido o de todas).
+    private void startVoice(int sound, float gain, float pan) {
+        int sameSound = 0;
+        int oldestSame = -1;
+        int oldest = -1;
+        for (int v = 0; v < voices; v++) {
+            if (voiceSound[v] == sound) {
+                sameSound++;
+                if (oldestSame < 0 || voicePosition[v] > voicePosition[oldestSame]) {
+                    oldestSame = v;
+                }
+            }
+            if (oldest < 0 || voicePosition[v] > voicePosition[oldest]) {
+                oldest = v;
+            }
+        }
+        
+        int v;
+        if (sameSound >= MAX_VOICES_PER_SOUND) {
+            v = oldestSame;
+            voicesStolen++;
+        } else if (voices < MAX_VOICES) {
+            v = voices++;
+        } else {
+            v = oldest;
+            voicesStolen++;
+        }
+        voicesStarted++;
+        
+        // Pan de potencia constante
+        double angle = pan * Math.PI / 2;
+        voiceSound[v] = sound;
+        voicePosition[v] = 0;
+        voiceLeft[v] = (float) (Math.cos(angle) * gain);
+        voiceRight[v] = (float) (Math.sin(angle) * gain);
+    }
+    
+    // Quita la voz moviendo la última a su lugar (el orden no importa)
+    private void removeVoice(int v) {
+        int last = --voices;
+        voiceSound[v] = voiceSound[last];
+        voicePosition[v] = voicePosition[last];
+        voiceLeft[v] = voiceLeft[last];
+        voiceRight[v] = voiceRight[last];
+    }
+    
+    private static float log2(int value) {
+        return 31 - Integer.numberOfLeadingZeros(value);
+    }
+    
+    private static int clamp(float sample) {
+        return (int) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, sample));
+    }
+    
+    public int getActiveVoices() {
+        return voices;
+    }
+    
+    public long getEventsMixed() {
+        return eventsMixed;
+    }
+    
+    public long getVoicesStarted() {
+        return voicesStarted;
+    }
+    
+    public long getVoicesStolen() {
+        return voicesStolen;
+    }
+    
+    public String getDeviceName() {
+        return device.getName();
+    }
+}
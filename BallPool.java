@@ -0,0 +1,119 @@
+// Almacén de bolas en arreglos paralelos de primitivos, sin asignaciones durante el juego
+
+import java.util.Arrays;
+
+
+class BallPool {
+    
+    private float[] x;
+    private float[] y;
+    private float[] vx;
+    private float[] vy;
+    private float[] size;
+    private int count;
+    
+    public BallPool(int initialCapacity) {
+        x = new float[initialCapacity];
+        y = new float[initialCapacity];
+        vx = new float[initialCapacity];
+        vy = new float[initialCapacity];
+        size = new float[initialCapacity];
+    }
+    
+    // Añade una bola y devuelve su índice
+    public int add(float ballX, float ballY, float ballSize, float velocityX, float velocityY) {
+        ensureCapacity(count + 1);
+        int i = count++;
+        x[i] = ballX;
+        y[i] = ballY;
+        size[i] = ballSize;
+        vx[i] = velocityX;
+        vy[i] = velocityY;
+        return i;
+    }
+    
+    // Elimina la bola moviendo la última a su posición (el orden no se conserva)
+    public void remove(int i) {
+        int last = --count;
+        x[i] = x[last];
+        y[i] = y[last];
+        vx[i] = vx[last];
+        vy[i] = vy[last];
+        size[i] = size[last];
+    }
+    
+    // Sustituye todas las bolas por las de los arreglos dados
+    public void copyFrom(float[] ballX, float[] ballY, float[] ballSize, float[] velocityX, float[] velocityY,
+                         int ballCount) {
+        ensureCapacity(ballCount);
+        System.arraycopy(ballX, 0, x, 0, ballCount);
+        System.arraycopy(ballY, 0, y, 0, ballCount);
+        System.arraycopy(ballSize, 0, size, 0, ballCount);
+        System.arraycopy(velocityX, 0, vx, 0, ballCount);
+        System.arraycopy(velocityY, 0, vy, 0, ballCount);
+        count = ballCount;
+    }
+    
+    public void clear() {
+        count = 0;
+    }
+    
+    // Crece duplicando la capacidad; solo asigna cuando se supera el máximo histórico
+    public void ensureCapacity(int capacity) {
+        if (capacity <= x.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, x.length * 2);
+        x = Arrays.copyOf(x, newCapacity);
+        y = Arrays.copyOf(y, newCapacity);
+        vx = Arrays.copyOf(vx, newCapacity);
+        vy = Arrays.copyOf(vy, newCapacity);
+        size = Arrays.copyOf(size, newCapacity);
+    }
+    
+    // Cambia la dirección según el ángulo de rebote (radianes respecto a la vertical), conservando la rapidez
+    public void adjustVelocity(int i, float bounceAngle) {
+        float speed = (float) Math.sqrt(vx[i] * vx[i] + vy[i] * vy[i]);
+        float direction = vy[i] < 0 ? -1 : 1;
+        vx[i] = speed * (float) Math.sin(bounceAngle);
+        vy[i] = direction * speed * (float) Math.cos(bounceAngle);
+    }
+    
+    // Multiplica la velocidad de todas las bolas por factor
+    public void scaleVelocities(float factor) {
+        for (int i = 0; i < count; i++) {
+            vx[i] *= factor;
+            vy[i] *= factor;
+        }
+    }
+    
+    public int size() {
+        return count;
+    }
+    
+    public boolean isEmpty() {
+        return count == 0;
+    }
+    
+    // Acceso directo a los arreglos para los bucles de actualización y dibujo.
+    // Solo los primeros size() elementos son válidos.
+    public float[] getXs() {
+        return x;
+    }
+    
+    public float[] getYs() {
+        return y;
+    }
+    
+    public float[] getVelocityXs() {
+        return vx;
+    }
+    
+    public float[] getVelocityYs() {
+        return vy;
+    }
+    
+    public float[] getSizes() {
+        return size;
+    }
+}
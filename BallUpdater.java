@@ -0,0 +1,252 @@
+// Actualización de bolas por bloques (en serie o en paralelo con fork/join) con resolución determinista de ladrillos
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+
+class BallUpdater {
+    
+    // Máximo de impactos resueltos por bola y tick
+    public static final int MAX_HITS_PER_TICK = 8;
+    
+    // Tamaño de bloque por tarea y mínimo de bolas para usar el pool
+    private static final int CHUNK_SIZE = 1024;
+    private static final int PARALLEL_THRESHOLD = 2 * CHUNK_SIZE;
+    
+    private static final int NO_CLAIM = Integer.MAX_VALUE;
+    
+    private static final ThreadLocal<SweptCollision> SWEEP = ThreadLocal.withInitial(SweptCollision::new);
+    
+    private final ForkJoinPool pool;
+    private boolean parallel;
+    
+    // Estado de la pasada actual (solo lectura para las tareas)
+    private BallPool balls;
+    private Paddle paddle;
+    private BrickField brickField;
+    private int width;
+    
+    // Ladrillos golpeados por cada bola en este tick
+    private int[] hitCells = new int[0];
+    private int[] hitCounts = new int[0];
+    
+    // Bolas que rebotaron en el paddle en este tick (cortan el combo)
+    private boolean[] touchedPaddle = new boolean[0];
+    
+    // Reclamo de cada celda: índice de bola más bajo que la golpeó en este tick
+    private AtomicIntegerArray claims = new AtomicIntegerArray(0);
+    
+    public BallUpdater() {
+        this(ForkJoinPool.commonPool());
+    }
+    
+    public BallUpdater(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+    
+    // Fase de movimiento: cada bola avanza contra el estado de los ladrillos al inicio del tick.
+    // Los impactos con ladrillos se anotan y se reclaman; el motor los aplica luego por orden de bola.
+    public void update(BallPool balls, Paddle paddle, BrickField brickField, int width) {
+        this.balls = balls;
+        this.paddle = paddle;
+        this.brickField = brickField;
+        this.width = width;
+        
+        int count = balls.size();
+        if (hitCounts.length < count) {
+            int capacity = Math.max(count, hitCounts.length * 2);
+            hitCounts = new int[capacity];
+            touchedPaddle = new boolean[capacity];
+            hitCells = new int[capacity * MAX_HITS_PER_TICK];
+        }
+        if (claims.length() < brickField.getCellCount()) {
+            claims = new AtomicIntegerArray(brickField.getCellCount());
+            for (int i = 0; i < claims.length(); i++) {
+                claims.set(i, NO_CLAIM);
+            }
+        }
+        
+        if (parallel && count >= PARALLEL_THRESHOLD) {
+            pool.invoke(new SweepTask(0, count));
+        } else {
+            sweepRange(0, count);
+        }
+    }
+    
+    // Indica si la bola ganó el ladrillo (ninguna bola de índice menor lo golpeó en este tick)
+    public boolean ownsHit(int ball, int cell) {
+        return claims.get(cell) == ball;
+    }
+    
+    // Libera los reclamos del tick; llamar después de aplicar todos los impactos
+    public void releaseClaims() {
+        int count = balls.size();
+        for (int i = 0; i < count; i++) {
+            int base = i * MAX_HITS_PER_TICK;
+            for (int k = 0; k < hitCounts[i]; k++) {
+                claims.set(hitCells[base + k], NO_CLAIM);
+            }
+        }
+    }
+    
+    public int getHitCount(int ball) {
+        return hitCounts[ball];
+    }
+    
+    public int getHitCell(int ball, int hit) {
+        return hitCells[ball * MAX_HITS_PER_TICK + hit];
+    }
+    
+    public boolean touchedPaddle(int ball) {
+        return touchedPaddle[ball];
+    }
+    
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+    
+    public boolean isParallel() {
+        return parallel;
+    }
+    
+    private void sweepRange(int from, int to) {
+        SweptCollision hit = SWEEP.get();
+        for (int i = from; i < to; i++) {
+            sweepBall(i, hit);
+        }
+    }
+    
+    // Avanza la bola un tick resolviendo en orden temporal los impactos con paredes, paddle y ladrillos
+    private void sweepBall(int i, SweptCollision hit) {
+        float[] xs = balls.getXs();
+        float[] ys = balls.getYs();
+        float[] vxs = balls.getVelocityXs();
+        float[] vys = balls.getVelocityYs();
+        
+        float r = balls.getSizes()[i] / 2f;
+        float cx = xs[i] + r;
+        float cy = ys[i] + r;
+        float vx = vxs[i];
+        float vy = vys[i];
+        float remaining = 1;
+        
+        int base = i * MAX_HITS_PER_TICK;
+        int brickHits = 0;
+        boolean touched = false;
+        
+        for (int hits = 0; hits < MAX_HITS_PER_TICK && remaining > 0; hits++) {
+            boolean hitPaddle = false;
+            boolean hitAnything = false;
+            float t = remaining;
+            float nx = 0;
+            float ny = 0;
+            
+            // Paredes laterales y superior
+            if (vx < 0 && (r - cx) / vx < t) {
+                t = Math.max((r - cx) / vx, 0);
+                nx = 1;
+                ny = 0;
+                hitAnything = true;
+            } else if (vx > 0 && (width - r - cx) / vx < t) {
+                t = Math.max((width - r - cx) / vx, 0);
+                nx = -1;
+                ny = 0;
+                hitAnything = true;
+            }
+            if (vy < 0 && (r - cy) / vy < t) {
+                t = Math.max((r - cy) / vy, 0);
+                nx = 0;
+                ny = 1;
+                hitAnything = true;
+            }
+            
+            // Paddle
+            if (hit.sweepCircleBox(cx, cy, r, vx, vy, paddle.getX(), paddle.getY(),
+                    paddle.getX() + paddle.getWidth(), paddle.getY() + paddle.getHeight(), t)) {
+                t = hit.getTime();
+                nx = hit.getNormalX();
+                ny = hit.getNormalY();
+                hitPaddle = true;
+                hitAnything = true;
+            }
+            
+            // Ladrillos (ignorando los que esta bola ya golpeó en el tick)
+            int cell = brickField.sweep(hit, cx, cy, r, vx, vy, t, hitCells, base, brickHits);
+            if (cell >= 0) {
+                t = hit.getTime();
+                nx = hit.getNormalX();
+                ny = hit.getNormalY();
+                hitPaddle = false;
+                hitAnything = true;
+            }
+            
+            cx += vx * t;
+            cy += vy * t;
+            remaining -= t;
+            
+            if (!hitAnything) {
+                break;
+            }
+            
+            // Reflejar la velocidad sobre la normal del impacto
+            float dot = vx * nx + vy * ny;
+            vx -= 2 * dot * nx;
+            vy -= 2 * dot * ny;
+            
+            if (hitPaddle && ny < 0) {
+                // Cambiar ángulo de rebote según donde golpee en el paddle
+                vxs[i] = vx;
+                vys[i] = vy;
+                float relativeIntersect = (cx - r - paddle.getX()) / paddle.getWidth();
+                float bounceAngle = (relativeIntersect - 0.5f) * 1.5f;
+                balls.adjustVelocity(i, bounceAngle);
+                vx = vxs[i];
+                vy = vys[i];
+                touched = true;
+            } else if (cell >= 0) {
+                hitCells[base + brickHits++] = cell;
+                claim(cell, i);
+            }
+        }
+        
+        hitCounts[i] = brickHits;
+        touchedPaddle[i] = touched;
+        xs[i] = cx - r;
+        ys[i] = cy - r;
+        vxs[i] = vx;
+        vys[i] = vy;
+    }
+    
+    // Reclama la celda para la bola si ninguna de índice menor la tiene
+    private void claim(int cell, int ball) {
+        while (true) {
+            int current = claims.get(cell);
+            if (current <= ball || claims.compareAndSet(cell, current, ball)) {
+                return;
+            }
+        }
+    }
+    
+    // Tarea fork/join que divide el rango de bolas en bloques (no se serializa nunca)
+    @SuppressWarnings("serial")
+    class SweepTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        
+        SweepTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK_SIZE) {
+                sweepRange(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new SweepTask(from, middle), new SweepTask(middle, to));
+        }
+    }
+}
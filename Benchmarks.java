@@ -0,0 +1,560 @@
+// Microbenchmarks de los caminos críticos (colisiones, movimiento, power-ups y dibujo)
+// con calentamiento, varias iteraciones medidas y bytes asignados por operación. Es la medida
+// rápida; los mismos casos se miden con JMH (forks, calentamiento y perfil de GC) en jmh/.
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+
+class Benchmarks {
+    
+    // Iteraciones de calentamiento y de medida (milisegundos cada una)
+    private static int warmupIterations = 3;
+    private static int measureIterations = 5;
+    private static long iterationMillis = 500;
+    
+    // Evita que el JIT elimine los resultados
+    static volatile long sink;
+    
+    private static String filter = "";
+    
+    // Casos creados sin medirlos ("nombre parámetros" -> operación), para JMH; null al medir aquí
+    private static Map<String, Runnable> cases;
+    
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--filter":
+                    filter = args[++i];
+                    break;
+                case "--quick":
+                    warmupIterations = 1;
+                    measureIterations = 3;
+                    iterationMillis = 200;
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.err.println("Usage: java Benchmarks [--filter name] [--quick]");
+                    System.exit(2);
+            }
+        }
+        
+        System.out.printf("%-28s %-22s %14s %10s %14s%n", "Benchmark", "Params", "ns/op", "error", "B/op");
+        runAll();
+    }
+    
+    // Crea los casos cuyo nombre contiene nameFilter sin medirlos. Lo llama por reflexión el módulo
+    // JMH (jmh/), que no puede usar las clases del paquete por defecto y mide con su propio arnés.
+    static Map<String, Runnable> createCases(String nameFilter) {
+        System.setProperty("java.awt.headless", "true");
+        filter = nameFilter;
+        cases = new LinkedHashMap<>();
+        runAll();
+        return cases;
+    }
+    
+    private static void runAll() {
+        for (int size : new int[] {8, 64, 256}) {
+            brickFieldBenchmarks(size);
+        }
+        for (int count : new int[] {1_000, 10_000, 50_000}) {
+            ballUpdateBenchmark(count, false);
+            ballUpdateBenchmark(count, true);
+        }
+        for (int count : new int[] {1_000, 10_000, 50_000}) {
+            predictorBenchmark(count);
+        }
+        for (int count : new int[] {10, 1_000}) {
+            powerUpBenchmark(count);
+        }
+        for (int queued : new int[] {16, 10_000}) {
+            effectBenchmark(queued);
+        }
+        levelBenchmark(1_000);
+        explosionBenchmark(32);
+        scoreBenchmarks();
+        stateBenchmarks();
+        renderBenchmark();
+        frameBenchmarks();
+        for (int budget : new int[] {4_096, 65_536}) {
+            particleBenchmarks(budget);
+        }
+        for (int events : new int[] {0, 500}) {
+            audioBenchmark(events);
+        }
+        cameraBenchmarks(1_000);
+    }
+    
+    // Abrir un nivel binario grande (mapeado) y crear su campo: una pasada secuencial por las celdas
+    // para comprobar el número de ladrillos, sin crear objetos por ladrillo
+    private static void levelBenchmark(int size) {
+        if (!selected("LevelFormat.load")) {
+            return;
+        }
+        Path path;
+        try {
+            path = Files.createTempFile("level", ".bin");
+            path.toFile().deleteOnExit();
+            LevelFormat.writeStressLevel(path, size, size, 42);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        
+        run("LevelFormat.load", size + "x" + size + " mapped", () -> {
+            try {
+                BrickField field = new BrickField(LevelFormat.load(path));
+                sink += field.getLiveCount();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+    
+    // Reacción en cadena completa en un bloque de size x size ladrillos explosivos, resuelta en una
+    // llamada como en el motor; B/op incluye crear el campo
+    private static void explosionBenchmark(int size) {
+        if (!selected("BrickField.explosions")) {
+            return;
+        }
+        Level.BrickKind[] palette = {null, new Level.BrickKind(Level.BrickType.EXPLOSIVE, 1, Color.WHITE, 10)};
+        ByteBuffer cells = ByteBuffer.allocate(size * size);
+        for (int i = 0; i < size * size; i++) {
+            cells.put(i, (byte) 1);
+        }
+        Level level = new Level(size, size, palette, cells, size * size, null);
+        
+        run("BrickField.explosions", size * size + " cascade", () -> {
+            BrickField field = new BrickField(level);
+            long points = field.hitCell(size * size / 2);
+            points += field.propagateExplosions();
+            sink += points;
+        });
+    }
+    
+    // Sumar puntos de ladrillos (con combo y desglose por fila) y tomar la foto para el HUD
+    private static void scoreBenchmarks() {
+        if (!selected("ScoreManager.addBrickPoints", "ScoreManager.snapshot")) {
+            return;
+        }
+        ScoreManager score = new ScoreManager(8);
+        ScoreManager.Stats stats = new ScoreManager.Stats();
+        int[] hits = {0};
+        
+        run("ScoreManager.addBrickPoints", "8 rows", () -> {
+            score.addBrickPoints(hits[0] & 7, 10);
+            if ((++hits[0] & 31) == 0) {
+                score.resetCombo();
+            }
+        });
+        run("ScoreManager.snapshot", "8 rows", () -> sink += score.snapshot(stats).score);
+    }
+    
+    // Guardar y restaurar una partida a medias (como una búsqueda que vuelve a la raíz), bifurcarla
+    // un tick y codificar la diferencia entre dos ticks seguidos (tamaño medio en los parámetros)
+    private static void stateBenchmarks() {
+        if (!selected("GameEngine.saveState+restore", "GameEngine.restore+update", "GameStateCodec.writeDelta")) {
+            return;
+        }
+        GameEngine engine = new GameEngine(42);
+        for (int i = 0; i < 600 && !engine.isGameOver(); i++) {
+            engine.movePaddle(HeadlessRunner.autoPaddleX(engine));
+            engine.update();
+        }
+        GameState root = engine.saveState(new GameState());
+        GameState scratch = new GameState();
+        run("GameEngine.saveState+restore", "classic, mid-game", () -> {
+            engine.restoreState(root);
+            sink += engine.saveState(scratch).tick;
+        });
+        run("GameEngine.restore+update", "classic, 1 tick", () -> {
+            engine.restoreState(root);
+            engine.movePaddle(HeadlessRunner.autoPaddleX(engine));
+            engine.update();
+        });
+        
+        // Diferencias de una partida tick a tick
+        GameState[] states = new GameState[600];
+        engine.restoreState(root);
+        for (int i = 0; i < states.length; i++) {
+            states[i] = engine.saveState(new GameState());
+            engine.movePaddle(HeadlessRunner.autoPaddleX(engine));
+            engine.update();
+        }
+        ByteBuffer delta = ByteBuffer.allocate(64 * 1024);
+        long bytes = 0;
+        for (int i = 1; i < states.length; i++) {
+            delta.clear();
+            GameStateCodec.writeDelta(states[i - 1], states[i], delta);
+            bytes += delta.position();
+        }
+        String params = String.format("%d B/tick, full %d B", bytes / (states.length - 1),
+                GameStateCodec.size(states[states.length - 1]));
+        int[] next = {1};
+        run("GameStateCodec.writeDelta", params, () -> {
+            delta.clear();
+            GameStateCodec.writeDelta(states[next[0] - 1], states[next[0]], delta);
+            next[0] = next[0] == states.length - 1 ? 1 : next[0] + 1;
+        });
+    }
+    
+    private static void brickFieldBenchmarks(int size) {
+        if (!selected("BrickField.sweep", "BrickField.isEmpty")) {
+            return;
+        }
+        BrickField field = new BrickField(size, size);
+        SweptCollision hit = new SweptCollision();
+        int[] noHits = new int[0];
+        Random random = new Random(42);
+        
+        // Trayectorias aleatorias dentro de la zona de ladrillos
+        int samples = 1024;
+        float[] cx = new float[samples];
+        float[] cy = new float[samples];
+        float[] dx = new float[samples];
+        float[] dy = new float[samples];
+        for (int i = 0; i < samples; i++) {
+            cx[i] = 50 + random.nextFloat() * size * 85;
+            cy[i] = 50 + random.nextFloat() * size * 25;
+            dx[i] = random.nextFloat() * 16 - 8;
+            dy[i] = random.nextFloat() * 16 - 8;
+        }
+        
+        int[] index = new int[1];
+        run("BrickField.sweep", size + "x" + size, () -> {
+            int i = index[0]++ & (samples - 1);
+            sink += field.sweep(hit, cx[i], cy[i], 5, dx[i], dy[i], 1, noHits, 0, 0);
+        });
+        run("BrickField.isEmpty", size + "x" + size, () -> sink += field.isEmpty() ? 1 : 0);
+    }
+    
+    private static void ballUpdateBenchmark(int count, boolean parallel) {
+        if (!selected("BallUpdater.update")) {
+            return;
+        }
+        BallPool template = randomBalls(count);
+        BallPool balls = randomBalls(count);
+        Paddle paddle = new Paddle(350, 530, 100, 15);
+        BrickField field = new BrickField(8, 8);
+        BallUpdater updater = new BallUpdater();
+        updater.setParallel(parallel);
+        
+        // Se restauran las posiciones en cada operación para que las bolas no salgan del campo
+        run("BallUpdater.update", count + (parallel ? " parallel" : " serial"), () -> {
+            System.arraycopy(template.getXs(), 0, balls.getXs(), 0, count);
+            System.arraycopy(template.getYs(), 0, balls.getYs(), 0, count);
+            System.arraycopy(template.getVelocityXs(), 0, balls.getVelocityXs(), 0, count);
+            System.arraycopy(template.getVelocityYs(), 0, balls.getVelocityYs(), 0, count);
+            updater.update(balls, paddle, field, GameEngine.WIDTH);
+            updater.releaseClaims();
+            sink += updater.getHitCount(0);
+        });
+    }
+    
+    // Predicción de la llegada de todas las bolas al paddle, como la hace PredictorController cada tick
+    private static void predictorBenchmark(int count) {
+        if (!selected("TrajectoryPredictor.predict")) {
+            return;
+        }
+        BallPool balls = randomBalls(count);
+        TrajectoryPredictor predictor = new TrajectoryPredictor();
+        run("TrajectoryPredictor.predict", count + " balls", () -> {
+            predictor.predict(balls, 530, GameEngine.WIDTH);
+            sink += predictor.firstToLand();
+        });
+    }
+    
+    private static void powerUpBenchmark(int count) {
+        if (!selected("PowerUp.move+intersects")) {
+            return;
+        }
+        Paddle paddle = new Paddle(350, 530, 100, 15);
+        PowerUp[] powerUps = new PowerUp[count];
+        PowerUp.PowerUpType[] types = PowerUp.TYPES;
+        Random random = new Random(42);
+        for (int i = 0; i < count; i++) {
+            powerUps[i] = new PowerUp(random.nextInt(GameEngine.WIDTH), random.nextInt(500), types[i % types.length]);
+        }
+        
+        run("PowerUp.move+intersects", String.valueOf(count), () -> {
+            long hits = 0;
+            for (PowerUp powerUp : powerUps) {
+                powerUp.move();
+                if (powerUp.intersects(paddle)) {
+                    hits++;
+                }
+            }
+            sink += hits;
+        });
+    }
+    
+    // Un tick con "queued" efectos en cola: se añade uno y expira lo que toque, manteniendo el tamaño
+    private static void effectBenchmark(int queued) {
+        if (!selected("EffectScheduler.add+expire")) {
+            return;
+        }
+        EffectScheduler effects = new EffectScheduler(PowerUp.TYPES.length, queued);
+        Random random = new Random(42);
+        long[] tick = {0};
+        for (int i = 0; i < queued; i++) {
+            effects.add(i % PowerUp.TYPES.length, 1 + random.nextInt(2 * queued));
+        }
+        
+        run("EffectScheduler.add+expire", String.valueOf(queued), () -> {
+            long now = ++tick[0];
+            effects.add((int) (now % PowerUp.TYPES.length), now + 1 + random.nextInt(2 * queued));
+            effects.expire(now);
+            sink += effects.size();
+        });
+    }
+    
+    // Dibujo del panel con una sesión sin récords ni sonido, detenida antes de medir (sin hilo
+    // del bucle ni MBean); paintComponent dibuja la última instantánea publicada
+    private static void renderBenchmark() {
+        if (!selected("GamePanel.paintComponent")) {
+            return;
+        }
+        GameOptions options = new GameOptions();
+        options.seed = 42;
+        options.scoresPath = null;
+        options.sound = false;
+        GamePanel panel = new GamePanel(options);
+        panel.stopGame();
+        panel.setSize(GameEngine.WIDTH, GameEngine.HEIGHT);
+        
+        BufferedImage image = new BufferedImage(GameEngine.WIDTH, GameEngine.HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        run("GamePanel.paintComponent", "800x600", () -> panel.paintComponent(g));
+        dispose(g);
+    }
+    
+    // Cuadros con el juego en marcha: tick del motor, captura de la instantánea y dibujo.
+    // "playing" incluye los eventos (ladrillos destruidos, cambios del HUD, reinicios);
+    // "steady" dibuja una partida con bolas y power-ups en vuelo sin cambios de estado:
+    // el juego solo asigna la copia de la transformación que devuelve getTransform, el resto de
+    // B/op lo asigna Java2D internamente.
+    private static void frameBenchmarks() {
+        if (!selected("GameEngine.update+render", "GameRenderer.render")) {
+            return;
+        }
+        GameEngine engine = new GameEngine();
+        GameSnapshot snapshot = new GameSnapshot();
+        GameRenderer renderer = new GameRenderer(Color.BLACK, GameEngine.TICK_NANOS);
+        
+        BufferedImage image = new BufferedImage(GameEngine.WIDTH, GameEngine.HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        run("GameEngine.update+render", "playing", () -> {
+            if (engine.isGameOver()) {
+                engine.reset();
+            }
+            engine.movePaddle(HeadlessRunner.autoPaddleX(engine));
+            engine.update();
+            snapshot.capture(engine, false);
+            renderer.render(g, snapshot, GameEngine.WIDTH, GameEngine.HEIGHT);
+        });
+        
+        // Avanzar una partida nueva hasta que haya power-ups cayendo
+        engine.reset();
+        while (engine.getPowerUps().size() == 0 && !engine.isGameOver()) {
+            engine.movePaddle(HeadlessRunner.autoPaddleX(engine));
+            engine.update();
+        }
+        snapshot.capture(engine, false);
+        run("GameRenderer.render", "steady", () -> renderer.render(g, snapshot, GameEngine.WIDTH, GameEngine.HEIGHT));
+        dispose(g);
+    }
+    
+    // Nivel de size x size en una vista 4K: la cámara sigue la bola y solo se dibuja lo visible,
+    // así que el coste depende del tamaño de la vista y no del de nivel. "playing" incluye rehacer
+    // la capa de ladrillos cuando la cámara se mueve; "steady" es el cuadro con la capa en caché.
+    private static void cameraBenchmarks(int size) {
+        if (!selected("GameRenderer.render")) {
+            return;
+        }
+        Level level;
+        try {
+            Path path = Files.createTempFile("level", ".bin");
+            path.toFile().deleteOnExit();
+            LevelFormat.writeStressLevel(path, size, size, 42);
+            level = LevelFormat.load(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        
+        int width = 3840;
+        int height = 2160;
+        GameEngine engine = new GameEngine(42, level);
+        GameSnapshot snapshot = new GameSnapshot();
+        GameRenderer renderer = new GameRenderer(Color.BLACK, GameEngine.TICK_NANOS);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        String params = size + "x" + size + " 4K";
+        run("GameRenderer.render", params + " playing", () -> {
+            if (engine.isGameOver()) {
+                engine.reset();
+            }
+            engine.movePaddle(HeadlessRunner.autoPaddleX(engine));
+            engine.update();
+            snapshot.capture(engine, false);
+            renderer.render(g, snapshot, width, height);
+        });
+        run("GameRenderer.render", params + " steady", () -> renderer.render(g, snapshot, width, height));
+        dispose(g);
+    }
+    
+    // Búfer de partículas lleno con ráfagas nuevas en cada tick (las más antiguas se descartan):
+    // el coste de mover y dibujar está acotado por el presupuesto y no debe asignar nada
+    private static void particleBenchmarks(int budget) {
+        if (!selected("ParticleBuffer.update", "GameRenderer.render")) {
+            return;
+        }
+        ParticleBuffer particles = new ParticleBuffer(budget);
+        Color[] colors = {Color.RED, Color.ORANGE, Color.YELLOW, Color.GREEN, Color.CYAN, Color.BLUE};
+        Random random = new Random(42);
+        // Un segundo de ticks con tantas ráfagas como deja emitir el presupuesto de cada tick
+        for (int tick = 0; tick < GameEngine.TICKS_PER_SECOND; tick++) {
+            for (int i = 0; i < budget / 32; i++) {
+                particles.brickBurst(random.nextInt(800), random.nextInt(300), colors[random.nextInt(colors.length)]);
+            }
+            particles.update();
+        }
+        int[] next = {0};
+        run("ParticleBuffer.update", budget + " full", () -> {
+            for (int i = 0; i < 32; i++) {
+                particles.brickBurst(next[0] % 800, 100 + next[0] % 200, colors[next[0] % colors.length]);
+                next[0] += 37;
+            }
+            particles.update();
+            sink += particles.size();
+        });
+        
+        // Dibujo de una instantánea con el búfer lleno en la vista del nivel clásico
+        GameEngine engine = new GameEngine(42);
+        engine.setParticles(particles);
+        GameSnapshot snapshot = new GameSnapshot();
+        snapshot.capture(engine, false);
+        GameRenderer renderer = new GameRenderer(Color.BLACK, GameEngine.TICK_NANOS);
+        BufferedImage image = new BufferedImage(GameEngine.WIDTH, GameEngine.HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        run("GameRenderer.render", budget + " particles",
+                () -> renderer.render(g, snapshot, GameEngine.WIDTH, GameEngine.HEIGHT));
+        dispose(g);
+    }
+    
+    // Un bloque de audio (unos 5,8 ms) con los eventos de una reacción en cadena: los del mismo
+    // sonido se combinan en una voz, así que el coste depende de las voces y no de los eventos
+    private static void audioBenchmark(int events) {
+        if (!selected("AudioMixer.mixBuffer")) {
+            return;
+        }
+        SoundQueue queue = new SoundQueue(SoundQueue.DEFAULT_CAPACITY);
+        AudioMixer mixer = new AudioMixer(queue, new SoundBank(AudioMixer.SAMPLE_RATE),
+                new NullAudioDevice(AudioMixer.FORMAT));
+        int[] next = {0};
+        run("AudioMixer.mixBuffer", events + " events", () -> {
+            for (int i = 0; i < events; i++) {
+                queue.post(SoundQueue.SOUNDS[next[0] % SoundQueue.SOUNDS.length], next[0] & SoundQueue.PAN_MAX);
+                next[0]++;
+            }
+            mixer.mixBuffer();
+            sink += mixer.getActiveVoices();
+        });
+    }
+    
+    static BallPool randomBalls(int count) {
+        BallPool balls = new BallPool(count);
+        Random random = new Random(42);
+        for (int i = 0; i < count; i++) {
+            balls.add(20 + random.nextInt(760), 260 + random.nextInt(250), 10,
+                    random.nextFloat() * 8 - 4, random.nextFloat() * 8 - 4);
+        }
+        return balls;
+    }
+    
+    // Si alguno de los casos de un grupo pasa el filtro; si no, el grupo ni se prepara
+    private static boolean selected(String... names) {
+        for (String name : names) {
+            if (name.contains(filter)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // Libera el Graphics de un benchmark de dibujo, salvo si los casos se crean para JMH (lo usan después)
+    private static void dispose(Graphics2D g) {
+        if (cases == null) {
+            g.dispose();
+        }
+    }
+    
+    // Ejecuta el benchmark si pasa el filtro e imprime ns/op, error (desviación estándar) y bytes/op.
+    // Los bytes asignados son los del hilo que mide; no incluyen los hilos del pool fork/join.
+    static void run(String name, String params, Runnable op) {
+        if (!name.contains(filter)) {
+            return;
+        }
+        if (cases != null) {
+            cases.put(name + " " + params, op);
+            return;
+        }
+        
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        
+        for (int i = 0; i < warmupIterations; i++) {
+            iteration(op);
+        }
+        
+        double[] nanosPerOp = new double[measureIterations];
+        long totalOps = 0;
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < measureIterations; i++) {
+            long[] result = iteration(op);
+            nanosPerOp[i] = (double) result[1] / result[0];
+            totalOps += result[0];
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        
+        double mean = 0;
+        for (double value : nanosPerOp) {
+            mean += value;
+        }
+        mean /= nanosPerOp.length;
+        double variance = 0;
+        for (double value : nanosPerOp) {
+            variance += (value - mean) * (value - mean);
+        }
+        double error = Math.sqrt(variance / Math.max(1, nanosPerOp.length - 1));
+        
+        System.out.printf("%-28s %-22s %14.1f %10.1f %14.1f%n", name, params, mean, error, (double) allocated / totalOps);
+    }
+    
+    // Una iteración de duración fija; devuelve {operaciones, nanosegundos}
+    private static long[] iteration(Runnable op) {
+        long deadline = System.nanoTime() + iterationMillis * 1_000_000L;
+        long ops = 0;
+        long start = System.nanoTime();
+        long now;
+        do {
+            // Lotes para que la lectura del reloj no domine las operaciones rápidas
+            for (int i = 0; i < 64; i++) {
+                op.run();
+            }
+            ops += 64;
+            now = System.nanoTime();
+        } while (now < deadline);
+        return new long[] {ops, now - start};
+    }
+}
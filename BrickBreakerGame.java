@@ -1,12 +1,39 @@
 // Clase principal que contiene el método main para iniciar el juego
 
 import javax.swing.*;
+import java.io.IOException;
+import java.util.Arrays;
 
 public class BrickBreakerGame {
-
+    
     public static void main(String[] args) {
+        // Modo sin pantalla: partidas automáticas a máxima velocidad
+        if (args.length > 0 && args[0].equals("--headless")) {
+            HeadlessRunner.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        
+        // Repetición sin pantalla de una sesión grabada
+        if (args.length > 0 && args[0].equals("--replay")) {
+            ReplayRunner.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        
+        // Servidor de sesiones sin pantalla (ver LoadClient)
+        if (args.length > 0 && args[0].equals("--server")) {
+            try {
+                GameServer.main(Arrays.copyOfRange(args, 1, args.length));
+            } catch (IOException e) {
+                System.err.println("Server failed: " + e.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
+        
+        GameOptions options = GameOptions.parse(args);
+        
         SwingUtilities.invokeLater(() -> {
-            GameFrame gameFrame = new GameFrame();
+            GameFrame gameFrame = new GameFrame(options);
             gameFrame.setVisible(true);
         });
     }
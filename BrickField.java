@@ -1,74 +1,432 @@
-// Campo de ladrillos que gestiona la creación y colisión con ladrillos
+// Campo de ladrillos que gestiona la creación y colisión con ladrillos.
+// Los ladrillos no son objetos: el nivel da el tipo de cada celda y aquí solo se guarda qué celdas
+// se destruyeron (y los golpes recibidos), así que un campo de un millón de celdas se crea sin recorrerlas.
 
-import java.awt.Color;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.util.Arrays;
 
 class BrickField {
-    private Brick[][] bricks;
-    private int rows;
-    private int cols;
-    private final int BRICK_WIDTH = 75;
-    private final int BRICK_HEIGHT = 20;
-    private final int TOP_OFFSET = 50;
-    private final int SIDE_OFFSET = 50;
+    private final Level level;
+    private final int rows;
+    private final int cols;
+    private static final int BRICK_WIDTH = 75;
+    private static final int BRICK_HEIGHT = 20;
+    private static final int TOP_OFFSET = 50;
+    static final int SIDE_OFFSET = 50;
+    private static final int CELL_WIDTH = BRICK_WIDTH + 10;
+    private static final int CELL_HEIGHT = BRICK_HEIGHT + 5;
     
+    // Índice espacial: un bit por celda destruida (las vacías las da el nivel) y
+    // contador de ladrillos por destruir
+    private final long[] destroyed;
+    private int liveCount;
+    
+    // Golpes recibidos por cada celda, sin signo (hasta 254: se lee con & 0xFF); se crea con el
+    // primer golpe a un ladrillo de varios golpes
+    private byte[] damage;
+    
+    // Registro de celdas que cambiaron (golpeadas o destruidas), en orden, para actualizar capas de dibujo en caché
+    private int[] changeLog = new int[64];
+    private int changeCount;
+    
+    // Explosiones pendientes: cola circular de celdas explosivas ya destruidas cuyos vecinos
+    // aún no se procesaron. Una reacción en cadena avanza por niveles (anchura primero) y se resuelve
+    // entera en el tick; cada celda entra una sola vez, así que la cola nunca pasa del número de celdas.
+    // Una cascada de miles de ladrillos cuesta microsegundos.
+    private int[] explosionQueue = new int[16];
+    private int explosionHead;
+    private int explosionCount;
+    
+    // Cuántas veces se restauró el campo a un estado guardado; quien sigue el registro de cambios
+    // (capas de dibujo, clientes del servidor) debe empezar de nuevo cuando cambia
+    private int generation;
+    
+    // Campo lleno con el patrón clásico de colores y puntos por filas
     public BrickField(int rows, int cols) {
-        this.rows = rows;
-        this.cols = cols;
-        initBricks();
+        this(Level.classic(rows, cols));
     }
     
-    private void initBricks() {
-        bricks = new Brick[rows][cols];
-        
-        // Definir colores y puntos para diferentes filas
-        Color[] rowColors = {
-            Color.RED, Color.ORANGE, Color.YELLOW, Color.GREEN, Color.BLUE, Color.MAGENTA, Color.PINK, Color.CYAN
-        };
+    public BrickField(Level level) {
+        this.level = level;
+        this.rows = level.getRows();
+        this.cols = level.getCols();
+        destroyed = new long[(int) (((long) rows * cols + 63) >>> 6)];
+        liveCount = level.getBrickCount();
+    }
+    
+    public void draw(Graphics2D g) {
+        draw(g, 0, 0, getPixelWidth(), getPixelHeight());
+    }
+    
+    // Dibuja solo los ladrillos que caen dentro del rectángulo dado
+    public void draw(Graphics2D g, int x, int y, int width, int height) {
+        int firstCol = Math.max(colAt(x), 0);
+        int lastCol = Math.min(colAt(x + width), cols - 1);
+        int firstRow = Math.max(rowAt(y), 0);
+        int lastRow = Math.min(rowAt(y + height), rows - 1);
         
-        int[] rowPoints = {7, 7, 5, 5, 3, 3, 1, 1};
+        for (int i = firstRow; i <= lastRow; i++) {
+            for (int j = firstCol; j <= lastCol; j++) {
+                int cell = i * cols + j;
+                if (isAlive(cell)) {
+                    drawCell(g, cell);
+                }
+            }
+        }
+    }
+    
+    // Igual, pero según una copia del estado hecha por el hilo de simulación ("states": golpes que
+    // le quedan a cada celda, sin signo, 0 sin ladrillo). Solo lee el nivel y la geometría, que no
+    // cambian, así que sirve para dibujar desde otro hilo.
+    public void draw(Graphics2D g, byte[] states, int x, int y, int width, int height) {
+        int firstCol = Math.max(colAt(x), 0);
+        int lastCol = Math.min(colAt(x + width), cols - 1);
+        int firstRow = Math.max(rowAt(y), 0);
+        int lastRow = Math.min(rowAt(y + height), rows - 1);
         
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                Color color = rowColors[i % rowColors.length];
-                int points = rowPoints[i % rowPoints.length];
-                int x = j * (BRICK_WIDTH + 10) + SIDE_OFFSET;
-                int y = i * (BRICK_HEIGHT + 5) + TOP_OFFSET;
-                bricks[i][j] = new Brick(x, y, BRICK_WIDTH, BRICK_HEIGHT, color, points);
+        for (int i = firstRow; i <= lastRow; i++) {
+            for (int j = firstCol; j <= lastCol; j++) {
+                int cell = i * cols + j;
+                if (states[cell] != 0) {
+                    drawCell(g, cell, states[cell] & 0xFF);
+                }
             }
         }
     }
     
-    public void draw(Graphics2D g) {
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                if (bricks[i][j] != null) {
-                    bricks[i][j].draw(g);
+    // Dibuja el ladrillo de la celda con el color que corresponde a los golpes que le quedan
+    public void drawCell(Graphics2D g, int cell) {
+        drawCell(g, cell, getRemainingHits(cell));
+    }
+    
+    public void drawCell(Graphics2D g, int cell, int remainingHits) {
+        Level.BrickKind kind = level.kindAt(cell);
+        g.setColor(kind.shade(remainingHits));
+        g.fillRect((cell % cols) * CELL_WIDTH + SIDE_OFFSET, (cell / cols) * CELL_HEIGHT + TOP_OFFSET,
+                BRICK_WIDTH, BRICK_HEIGHT);
+    }
+    
+    // Golpes de cada celda al empezar el nivel (0 las vacías), en el formato de la copia de draw
+    public void fillInitialStates(byte[] states) {
+        for (int cell = 0; cell < rows * cols; cell++) {
+            Level.BrickKind kind = level.kindAt(cell);
+            states[cell] = kind != null ? (byte) kind.hits : 0;
+        }
+    }
+    
+    // Rectángulo que ocupa el ladrillo de la celda
+    public void getCellBounds(int cell, Rectangle bounds) {
+        bounds.setBounds((cell % cols) * CELL_WIDTH + SIDE_OFFSET, (cell / cols) * CELL_HEIGHT + TOP_OFFSET,
+                BRICK_WIDTH, BRICK_HEIGHT);
+    }
+    
+    // Busca el ladrillo activo que la bola golpea primero a lo largo de su desplazamiento.
+    // Devuelve la celda (fila * columnas + columna) o -1; el impacto queda en "hit".
+    // Las celdas ignore[ignoreFrom .. ignoreFrom + ignoreCount) se tratan como vacías.
+    // Solo lee el estado de los ladrillos, por lo que puede llamarse desde varios hilos.
+    public int sweep(SweptCollision hit, float cx, float cy, float r, float dx, float dy, float maxTime,
+                     int[] ignore, int ignoreFrom, int ignoreCount) {
+        float endX = cx + dx * maxTime;
+        float endY = cy + dy * maxTime;
+        int firstCol = Math.max(colAt(Math.min(cx, endX) - r), 0);
+        int lastCol = Math.min(colAt(Math.max(cx, endX) + r), cols - 1);
+        int firstRow = Math.max(rowAt(Math.min(cy, endY) - r), 0);
+        int lastRow = Math.min(rowAt(Math.max(cy, endY) + r), rows - 1);
+        
+        int hitCell = -1;
+        float best = maxTime;
+        for (int i = firstRow; i <= lastRow; i++) {
+            for (int j = firstCol; j <= lastCol; j++) {
+                int cell = i * cols + j;
+                if (!isAlive(cell) || contains(ignore, ignoreFrom, ignoreCount, cell)) {
+                    continue;
+                }
+                float minX = j * CELL_WIDTH + SIDE_OFFSET;
+                float minY = i * CELL_HEIGHT + TOP_OFFSET;
+                // Cada impacto aceptado reduce el tiempo máximo, así "hit" guarda siempre el más temprano
+                if (hit.sweepCircleBox(cx, cy, r, dx, dy, minX, minY, minX + BRICK_WIDTH, minY + BRICK_HEIGHT, best)) {
+                    best = hit.getTime();
+                    hitCell = cell;
                 }
             }
         }
+        return hitCell;
     }
     
-    public Brick checkCollision(Ball ball) {
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                if (bricks[i][j] != null && bricks[i][j].isActive() && ball.intersects(bricks[i][j])) {
-                    bricks[i][j].setActive(false);
-                    return bricks[i][j];
+    // Golpea el ladrillo de la celda y devuelve los puntos obtenidos (solo al destruirlo).
+    // Los indestructibles solo hacen rebotar la bola; los explosivos dejan su explosión
+    // pendiente para propagateExplosions.
+    public int hitCell(int cell) {
+        Level.BrickKind kind = level.kindAt(cell);
+        if (kind.type == Level.BrickType.INDESTRUCTIBLE) {
+            return 0;
+        }
+        if (kind.hits > 1) {
+            if (damage == null) {
+                damage = new byte[rows * cols];
+            }
+            int received = (damage[cell] & 0xFF) + 1;
+            if (received < kind.hits) {
+                damage[cell] = (byte) received;
+                logChange(cell);
+                return 0;
+            }
+        }
+        return destroy(cell, kind);
+    }
+    
+    // Procesa las explosiones pendientes hasta vaciar la cola, en orden de llegada: cada una destruye
+    // sus ocho vecinos (salvo los indestructibles) sin importar sus golpes, y los vecinos explosivos
+    // se encolan y se procesan en la misma llamada. Devuelve los puntos de los ladrillos destruidos.
+    public int propagateExplosions() {
+        int points = 0;
+        while (explosionCount > 0) {
+            int cell = explosionQueue[explosionHead];
+            explosionHead = (explosionHead + 1) & (explosionQueue.length - 1);
+            explosionCount--;
+            
+            int row = cell / cols;
+            int col = cell % cols;
+            for (int i = Math.max(row - 1, 0); i <= Math.min(row + 1, rows - 1); i++) {
+                for (int j = Math.max(col - 1, 0); j <= Math.min(col + 1, cols - 1); j++) {
+                    int neighbour = i * cols + j;
+                    if (!isAlive(neighbour)) {
+                        continue;
+                    }
+                    Level.BrickKind kind = level.kindAt(neighbour);
+                    if (kind.type != Level.BrickType.INDESTRUCTIBLE) {
+                        points += destroy(neighbour, kind);
+                    }
                 }
             }
         }
-        return null;
+        return points;
+    }
+    
+    // Explosiones encoladas que aún no se procesaron
+    public int getPendingExplosions() {
+        return explosionCount;
+    }
+    
+    // Golpes que le quedan al ladrillo de la celda (0 si no hay ladrillo vivo)
+    public int getRemainingHits(int cell) {
+        if (!isAlive(cell)) {
+            return 0;
+        }
+        int hits = level.kindAt(cell).hits;
+        return damage == null ? hits : hits - (damage[cell] & 0xFF);
+    }
+    
+    private static boolean contains(int[] values, int from, int count, int value) {
+        for (int k = from; k < from + count; k++) {
+            if (values[k] == value) {
+                return true;
+            }
+        }
+        return false;
     }
     
     public boolean isEmpty() {
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                if (bricks[i][j] != null && bricks[i][j].isActive()) {
-                    return false;
+        return liveCount == 0;
+    }
+    
+    public int getLiveCount() {
+        return liveCount;
+    }
+    
+    // Columna de la rejilla que contiene la coordenada x (puede quedar fuera del rango)
+    private int colAt(float x) {
+        return (int) Math.floor((x - SIDE_OFFSET) / CELL_WIDTH);
+    }
+    
+    // Fila de la rejilla que contiene la coordenada y (puede quedar fuera del rango)
+    private int rowAt(float y) {
+        return (int) Math.floor((y - TOP_OFFSET) / CELL_HEIGHT);
+    }
+    
+    // Extensión en píxeles del campo, desde el origen hasta el borde del último ladrillo
+    public int getPixelWidth() {
+        return pixelWidth(cols);
+    }
+    
+    public int getPixelHeight() {
+        return pixelHeight(rows);
+    }
+    
+    static int pixelWidth(int cols) {
+        return (cols - 1) * CELL_WIDTH + BRICK_WIDTH + SIDE_OFFSET;
+    }
+    
+    static int pixelHeight(int rows) {
+        return (rows - 1) * CELL_HEIGHT + BRICK_HEIGHT + TOP_OFFSET;
+    }
+    
+    // Número de cambios (golpes y destrucciones) desde la creación del campo
+    public int getChangeCount() {
+        return changeCount;
+    }
+    
+    // Arreglo actual del registro; al crecer se sustituye. Las entradas ya leídas solo siguen valiendo
+    // mientras no cambie getGeneration(): restoreState rebobina el registro y lo sobrescribe
+    public int[] getChangeLog() {
+        return changeLog;
+    }
+    
+    public int getGeneration() {
+        return generation;
+    }
+    
+    // Celda que cambió en la posición dada del registro
+    public int getChangedCell(int index) {
+        return changeLog[index];
+    }
+    
+    public int getCellCount() {
+        return rows * cols;
+    }
+    
+    public boolean isAlive(int cell) {
+        return (destroyed[cell >>> 6] & (1L << cell)) == 0 && level.kindAt(cell) != null;
+    }
+    
+    // Tipo del ladrillo de la celda (null si está vacía)
+    public Level.BrickKind getKind(int cell) {
+        return level.kindAt(cell);
+    }
+    
+    public Level getLevel() {
+        return level;
+    }
+    
+    public int getRows() {
+        return rows;
+    }
+    
+    public int getCols() {
+        return cols;
+    }
+    
+    // Copia el estado de los ladrillos en state. Si state guarda un estado anterior de este campo
+    // (sin restauraciones entre medias), solo copia las celdas registradas desde entonces.
+    void saveState(GameState state) {
+        int from = 0;
+        if (state.field == this && state.fieldGeneration == generation && state.changeCount <= changeCount) {
+            from = state.changeCount;
+            if (damage != null && !state.hasDamage) {
+                // Primer golpe a un ladrillo de varios desde el último guardado
+                state.damage = GameState.grow(state.damage, damage.length);
+                Arrays.fill(state.damage, 0, damage.length, (byte) 0);
+                state.hasDamage = true;
+            }
+            for (int i = from; i < changeCount; i++) {
+                int cell = changeLog[i];
+                state.destroyed[cell >>> 6] = destroyed[cell >>> 6];
+                if (damage != null) {
+                    state.damage[cell] = damage[cell];
+                }
+            }
+        } else {
+            state.rows = rows;
+            state.cols = cols;
+            state.destroyed = GameState.grow(state.destroyed, destroyed.length);
+            System.arraycopy(destroyed, 0, state.destroyed, 0, destroyed.length);
+            state.hasDamage = damage != null;
+            if (damage != null) {
+                state.damage = GameState.grow(state.damage, damage.length);
+                System.arraycopy(damage, 0, state.damage, 0, damage.length);
+            }
+        }
+        state.liveCount = liveCount;
+        state.changeLog = GameState.grow(state.changeLog, changeCount);
+        System.arraycopy(changeLog, from, state.changeLog, from, changeCount - from);
+        state.changeCount = changeCount;
+        
+        state.explosions = GameState.grow(state.explosions, explosionCount);
+        for (int i = 0; i < explosionCount; i++) {
+            state.explosions[i] = explosionQueue[(explosionHead + i) & (explosionQueue.length - 1)];
+        }
+        state.explosionCount = explosionCount;
+        
+        state.field = this;
+        state.fieldGeneration = generation;
+    }
+    
+    // Vuelve al estado guardado en state, que debe ser de un campo del mismo nivel. Si se guardó
+    // de este campo y desde entonces solo se añadieron cambios, solo se deshacen esas celdas.
+    void restoreState(GameState state) {
+        if (state.rows != rows || state.cols != cols) {
+            throw new IllegalArgumentException("State is for a " + state.rows + "x" + state.cols
+                    + " field, not " + rows + "x" + cols);
+        }
+        if (state.field == this && state.fieldGeneration == generation && state.changeCount <= changeCount) {
+            // El registro hasta state.changeCount es el mismo; las celdas posteriores vuelven a lo guardado
+            for (int i = state.changeCount; i < changeCount; i++) {
+                int cell = changeLog[i];
+                destroyed[cell >>> 6] = state.destroyed[cell >>> 6];
+                if (damage != null) {
+                    damage[cell] = state.hasDamage ? state.damage[cell] : 0;
+                }
+            }
+        } else {
+            System.arraycopy(state.destroyed, 0, destroyed, 0, destroyed.length);
+            if (state.hasDamage) {
+                if (damage == null) {
+                    damage = new byte[rows * cols];
                 }
+                System.arraycopy(state.damage, 0, damage, 0, damage.length);
+            } else if (damage != null) {
+                Arrays.fill(damage, (byte) 0);
             }
+            if (changeLog.length < state.changeCount) {
+                changeLog = new int[Math.max(state.changeCount, changeLog.length * 2)];
+            }
+            System.arraycopy(state.changeLog, 0, changeLog, 0, state.changeCount);
+        }
+        liveCount = state.liveCount;
+        changeCount = state.changeCount;
+        
+        if (explosionQueue.length < state.explosionCount) {
+            explosionQueue = new int[Integer.highestOneBit(state.explosionCount - 1) << 1];
+        }
+        System.arraycopy(state.explosions, 0, explosionQueue, 0, state.explosionCount);
+        explosionHead = 0;
+        explosionCount = state.explosionCount;
+        
+        generation++;
+        state.field = this;
+        state.fieldGeneration = generation;
+    }
+    
+    // Destruye el ladrillo, encola su explosión si es explosivo y devuelve sus puntos
+    private int destroy(int cell, Level.BrickKind kind) {
+        destroyed[cell >>> 6] |= 1L << cell;
+        liveCount--;
+        logChange(cell);
+        if (kind.type == Level.BrickType.EXPLOSIVE) {
+            enqueueExplosion(cell);
+        }
+        return kind.points;
+    }
+    
+    private void logChange(int cell) {
+        if (changeCount == changeLog.length) {
+            changeLog = Arrays.copyOf(changeLog, changeCount * 2);
+        }
+        changeLog[changeCount++] = cell;
+    }
+    
+    private void enqueueExplosion(int cell) {
+        if (explosionCount == explosionQueue.length) {
+            // Duplicar desenrollando la cola para que la cabeza quede en 0 (la capacidad sigue siendo potencia de 2)
+            int[] grown = new int[explosionQueue.length * 2];
+            int firstPart = explosionQueue.length - explosionHead;
+            System.arraycopy(explosionQueue, explosionHead, grown, 0, firstPart);
+            System.arraycopy(explosionQueue, 0, grown, firstPart, explosionHead);
+            explosionQueue = grown;
+            explosionHead = 0;
         }
-        return true;
+        explosionQueue[(explosionHead + explosionCount) & (explosionQueue.length - 1)] = cell;
+        explosionCount++;
     }
 }
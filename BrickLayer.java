@@ -0,0 +1,198 @@
+// Capa de ladrillos pre-renderizada: se dibuja una vez y solo se redibujan las celdas que cambian.
+// El estado de los ladrillos sale solo de los cambios publicados en las instantáneas (con los golpes
+// copiados por la simulación), sobre una copia propia del campo: nunca se lee el campo vivo.
+// La imagen es opaca (con el color de fondo) para que el volcado sea una copia directa,
+// por eso debe dibujarse antes que el resto de elementos. Cubre solo la parte del campo que se
+// ve con la cámara, a la resolución de la pantalla: si la cámara se desplaza se corre la imagen y
+// solo se dibujan las franjas que entran en la vista; si cambia la escala se rehace entera.
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+
+class BrickLayer {
+    
+    private BufferedImage image;
+    private BrickField field;
+    private int fieldGeneration;
+    private final Color background;
+    
+    // Golpes que le quedan a cada celda con los cambios aplicados hasta appliedChanges (0 sin ladrillo)
+    private byte[] states;
+    private int appliedChanges;
+    private int[] changedCells;
+    private byte[] changedStates;
+    private int changeCount;
+    
+    private final Rectangle cellBounds = new Rectangle();
+    
+    // Dónde está la imagen en la pantalla y con qué cámara se dibujó
+    private int imageX;
+    private int imageY;
+    private double scale;
+    private double originX;
+    private double originY;
+    private final AffineTransform worldToImage = new AffineTransform();
+    
+    public BrickLayer(Color background) {
+        this.background = background;
+    }
+    
+    // Aplica los cambios publicados en la instantánea y dibuja en g la parte del campo que se ve con
+    // la cámara (la imagen mide como mucho viewWidth x viewHeight). Si el campo es otro o se restauró
+    // a un estado guardado (otra generación) la copia del estado y la capa se rehacen.
+    public void draw(Graphics2D g, GameSnapshot snapshot, Camera.View camera, int viewWidth, int viewHeight) {
+        BrickField brickField = snapshot.brickField;
+        int generation = snapshot.fieldGeneration;
+        changedCells = snapshot.changedCells;
+        changedStates = snapshot.changedStates;
+        changeCount = snapshot.changeCount;
+        boolean reset = field != brickField || fieldGeneration != generation;
+        if (reset) {
+            field = brickField;
+            fieldGeneration = generation;
+            if (states == null || states.length != brickField.getCellCount()) {
+                states = new byte[brickField.getCellCount()];
+            }
+            brickField.fillInitialStates(states);
+            appliedChanges = 0;
+        }
+        
+        // Parte de la pantalla que ocupa el campo
+        double cameraScale = camera.scale;
+        double cameraX = camera.originX;
+        double cameraY = camera.originY;
+        int left = Math.max(0, (int) Math.floor(-cameraX * cameraScale));
+        int top = Math.max(0, (int) Math.floor(-cameraY * cameraScale));
+        int right = Math.min(viewWidth, (int) Math.ceil((brickField.getPixelWidth() + 1 - cameraX) * cameraScale));
+        int bottom = Math.min(viewHeight, (int) Math.ceil((brickField.getPixelHeight() + 1 - cameraY) * cameraScale));
+        int width = right - left;
+        int height = bottom - top;
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        
+        if (reset || image == null || image.getWidth() != width || image.getHeight() != height
+                || left != imageX || top != imageY || cameraScale != scale) {
+            imageX = left;
+            imageY = top;
+            setCamera(cameraScale, cameraX, cameraY);
+            rebuild(width, height);
+        } else {
+            applyChanges();
+            if (cameraX != originX || cameraY != originY) {
+                scroll(cameraX, cameraY, width, height);
+            }
+        }
+        
+        g.drawImage(image, imageX, imageY, null);
+    }
+    
+    // De coordenadas del mundo a la imagen: la cámara menos la posición de la imagen en pantalla
+    private void setCamera(double cameraScale, double cameraX, double cameraY) {
+        scale = cameraScale;
+        originX = cameraX;
+        originY = cameraY;
+        worldToImage.setToTranslation(-imageX, -imageY);
+        worldToImage.scale(scale, scale);
+        worldToImage.translate(-originX, -originY);
+    }
+    
+    // Dibuja todos los ladrillos visibles en una imagen nueva
+    private void rebuild(int width, int height) {
+        if (image == null || image.getWidth() != width || image.getHeight() != height) {
+            image = createImage(width, height);
+        }
+        for (int i = appliedChanges; i < changeCount; i++) {
+            states[changedCells[i]] = changedStates[i];
+        }
+        appliedChanges = changeCount;
+        
+        Graphics2D g = image.createGraphics();
+        redraw(g, 0, 0, width, height);
+        g.dispose();
+    }
+    
+    // Corre la imagen lo que se movió la cámara (los orígenes caen en píxeles enteros de pantalla)
+    // y dibuja solo las franjas que quedaron al descubierto
+    private void scroll(double cameraX, double cameraY, int width, int height) {
+        int dx = (int) Math.round((originX - cameraX) * scale);
+        int dy = (int) Math.round((originY - cameraY) * scale);
+        setCamera(scale, cameraX, cameraY);
+        if (Math.abs(dx) >= width || Math.abs(dy) >= height) {
+            rebuild(width, height);
+            return;
+        }
+        
+        Graphics2D g = image.createGraphics();
+        g.copyArea(0, 0, width, height, dx, dy);
+        if (dx > 0) {
+            redraw(g, 0, 0, dx, height);
+        } else if (dx < 0) {
+            redraw(g, width + dx, 0, -dx, height);
+        }
+        if (dy > 0) {
+            redraw(g, 0, 0, width, dy);
+        } else if (dy < 0) {
+            redraw(g, 0, height + dy, width, -dy);
+        }
+        g.dispose();
+    }
+    
+    // Borra un rectángulo de la imagen y dibuja los ladrillos que caen en él (recortados a él)
+    private void redraw(Graphics2D g, int x, int y, int width, int height) {
+        AffineTransform screen = g.getTransform();
+        g.setClip(x, y, width, height);
+        g.setColor(background);
+        g.fillRect(x, y, width, height);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.transform(worldToImage);
+        // Solo los ladrillos del rectángulo, en coordenadas del mundo
+        field.draw(g, states, (int) Math.floor(originX + (imageX + x) / scale), (int) Math.floor(originY + (imageY + y) / scale),
+                (int) Math.ceil(width / scale) + 1, (int) Math.ceil(height / scale) + 1);
+        g.setTransform(screen);
+        g.setClip(null);
+    }
+    
+    // Redibuja las celdas que cambiaron desde la última actualización: se borran y, si el
+    // ladrillo sigue vivo (solo fue golpeado), se vuelve a dibujar con su color actual
+    private void applyChanges() {
+        int changes = changeCount;
+        if (changes <= appliedChanges) {
+            return;
+        }
+        
+        // Cada entrada trae los golpes que le quedaban a la celda al publicarse; una celda que
+        // cambió varias veces queda con el de su última entrada
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.transform(worldToImage);
+        for (int i = appliedChanges; i < changes; i++) {
+            int cell = changedCells[i];
+            states[cell] = changedStates[i];
+            field.getCellBounds(cell, cellBounds);
+            // Un píxel extra por los bordes suavizados
+            g.setColor(background);
+            g.fillRect(cellBounds.x - 1, cellBounds.y - 1, cellBounds.width + 2, cellBounds.height + 2);
+            if (states[cell] != 0) {
+                field.drawCell(g, cell, states[cell] & 0xFF);
+            }
+        }
+        g.dispose();
+        appliedChanges = changes;
+    }
+    
+    private static BufferedImage createImage(int width, int height) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+        // Imagen compatible con la pantalla para que el volcado pueda acelerarse
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                .getDefaultConfiguration().createCompatibleImage(width, height);
+    }
+}
@@ -0,0 +1,97 @@
+// Cámara del renderizado: pasa de coordenadas del mundo (las del motor; en el nivel clásico
+// coinciden con píxeles de una ventana de 800x600) a la pantalla con una escala y un origen.
+// Si el mundo entero cabe con una escala razonable se ajusta a la ventana (con bandas si la
+// proporción no coincide); si no, se usa la escala mínima y la cámara sigue la acción.
+
+class Camera {
+    
+    // Escala mínima: con menos los ladrillos serían ilegibles y se pasa a seguir la acción
+    static final double MIN_SCALE = 0.5;
+    
+    // Fracción del camino hacia el punto seguido que se recorre cada 1/60 s; en cada cuadro se
+    // ajusta al tiempo transcurrido para que la cámara siga igual a cualquier tasa de cuadros
+    private static final double FOLLOW_RATE = 0.15;
+    private static final double FOLLOW_FRAMES_PER_SECOND = 60;
+    
+    // Escala y esquina superior izquierda visible, en coordenadas del mundo, juntas en un objeto
+    // inmutable. Las escribe el hilo que dibuja y las lee el de eventos para pasar el ratón al
+    // mundo: con una sola referencia volatile nunca se mezclan valores de dos cuadros.
+    static final class View {
+        final double scale;
+        final double originX;
+        final double originY;
+        
+        View(double scale, double originX, double originY) {
+            this.scale = scale;
+            this.originX = originX;
+            this.originY = originY;
+        }
+    }
+    
+    private volatile View view = new View(1, 0, 0);
+    
+    // Punto seguido, suavizado entre cuadros, e instante del último ajuste
+    private double focusX = Double.NaN;
+    private double focusY;
+    private long lastNanos;
+    
+    // Ajusta la cámara a la vista (en píxeles) para un mundo dado, siguiendo el punto (targetX, targetY);
+    // nowNanos es el instante del cuadro (System.nanoTime)
+    public void update(int viewWidth, int viewHeight, int worldWidth, int worldHeight, float targetX, float targetY,
+            long nowNanos) {
+        double newScale = Math.max(Math.min((double) viewWidth / worldWidth, (double) viewHeight / worldHeight),
+                MIN_SCALE);
+        if (Double.isNaN(focusX)) {
+            focusX = targetX;
+            focusY = targetY;
+        } else {
+            double elapsed = Math.max(nowNanos - lastNanos, 0) / 1e9;
+            double rate = 1 - Math.pow(1 - FOLLOW_RATE, elapsed * FOLLOW_FRAMES_PER_SECOND);
+            focusX += (targetX - focusX) * rate;
+            focusY += (targetY - focusY) * rate;
+        }
+        lastNanos = nowNanos;
+        
+        double newOriginX = axisOrigin(viewWidth / newScale, worldWidth, focusX, newScale);
+        double newOriginY = axisOrigin(viewHeight / newScale, worldHeight, focusY, newScale);
+        View current = view;
+        // Solo se crea otra vista si la cámara se movió (con la cámara quieta el cuadro no asigna)
+        if (newScale != current.scale || newOriginX != current.originX || newOriginY != current.originY) {
+            view = new View(newScale, newOriginX, newOriginY);
+        }
+    }
+    
+    // Si el mundo cabe se centra; si no, se centra en el punto seguido sin salirse del mundo.
+    // El origen se redondea a píxeles enteros de pantalla para que la imagen no tiemble.
+    private static double axisOrigin(double visible, int world, double focus, double scale) {
+        double origin = visible >= world
+                ? (world - visible) / 2
+                : Math.max(0, Math.min(focus - visible / 2, world - visible));
+        return Math.round(origin * scale) / scale;
+    }
+    
+    // Escala y origen actuales; quien necesite varios valores debe leerlos de la misma vista
+    public View getView() {
+        return view;
+    }
+    
+    public float toScreenX(float worldX) {
+        View v = view;
+        return (float) ((worldX - v.originX) * v.scale);
+    }
+    
+    public float toScreenY(float worldY) {
+        View v = view;
+        return (float) ((worldY - v.originY) * v.scale);
+    }
+    
+    public int toWorldX(int screenX) {
+        View v = view;
+        return (int) Math.round(screenX / v.scale + v.originX);
+    }
+    
+    public int toWorldY(int screenY) {
+        View v = view;
+        return (int) Math.round(screenY / v.scale + v.originY);
+    }
+}
@@ -0,0 +1,117 @@
+// Efectos temporales de los power-ups, medidos en ticks de simulación (sin relojes ni hilos).
+// Cada recogida añade una entrada con su tick de expiración a un montículo binario: añadir y
+// expirar cuestan O(log n) y comprobar si algo expira en el tick actual es O(1).
+
+import java.util.Arrays;
+
+
+class EffectScheduler {
+    
+    // Montículo mínimo por tick de expiración, en arreglos paralelos de primitivos
+    private long[] expiry;
+    private byte[] effect;
+    private int size;
+    
+    // Entradas activas de cada efecto
+    private final int[] stacks;
+    
+    public EffectScheduler(int effectCount, int initialCapacity) {
+        expiry = new long[initialCapacity];
+        effect = new byte[initialCapacity];
+        stacks = new int[effectCount];
+    }
+    
+    // Añade una entrada del efecto que expira en expiryTick
+    public void add(int effectId, long expiryTick) {
+        if (size == expiry.length) {
+            int capacity = Math.max(16, expiry.length * 2);
+            expiry = Arrays.copyOf(expiry, capacity);
+            effect = Arrays.copyOf(effect, capacity);
+        }
+        
+        // Subir la nueva entrada hasta su sitio
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (expiry[parent] <= expiryTick) {
+                break;
+            }
+            expiry[i] = expiry[parent];
+            effect[i] = effect[parent];
+            i = parent;
+        }
+        expiry[i] = expiryTick;
+        effect[i] = (byte) effectId;
+        stacks[effectId]++;
+    }
+    
+    // Retira las entradas que expiran en tick o antes; devuelve true si alguna expiró
+    public boolean expire(long tick) {
+        boolean expired = false;
+        while (size > 0 && expiry[0] <= tick) {
+            stacks[effect[0]]--;
+            removeTop();
+            expired = true;
+        }
+        return expired;
+    }
+    
+    private void removeTop() {
+        int last = --size;
+        long lastExpiry = expiry[last];
+        byte lastEffect = effect[last];
+        
+        // Bajar la última entrada desde la raíz
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && expiry[child + 1] < expiry[child]) {
+                child++;
+            }
+            if (lastExpiry <= expiry[child]) {
+                break;
+            }
+            expiry[i] = expiry[child];
+            effect[i] = effect[child];
+            i = child;
+        }
+        expiry[i] = lastExpiry;
+        effect[i] = lastEffect;
+    }
+    
+    // Copia el montículo (size() entradas) en los arreglos dados
+    public void copyTo(long[] expiryOut, byte[] effectOut) {
+        System.arraycopy(expiry, 0, expiryOut, 0, size);
+        System.arraycopy(effect, 0, effectOut, 0, size);
+    }
+    
+    // Sustituye las entradas por un montículo copiado antes con copyTo
+    public void restore(long[] expiryIn, byte[] effectIn, int count) {
+        if (expiry.length < count) {
+            expiry = new long[count];
+            effect = new byte[count];
+        }
+        System.arraycopy(expiryIn, 0, expiry, 0, count);
+        System.arraycopy(effectIn, 0, effect, 0, count);
+        size = count;
+        Arrays.fill(stacks, 0);
+        for (int i = 0; i < count; i++) {
+            stacks[effect[i]]++;
+        }
+    }
+    
+    public void clear() {
+        size = 0;
+        Arrays.fill(stacks, 0);
+    }
+    
+    // Entradas activas del efecto (sin aplicar el límite de acumulación)
+    public int getStacks(int effectId) {
+        return stacks[effectId];
+    }
+    
+    public int size() {
+        return size;
+    }
+}
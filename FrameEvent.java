@@ -0,0 +1,20 @@
+// Evento JFR de un cuadro dibujado por GameRenderer
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+@Name("brickbreaker.Frame")
+@Label("Game Frame")
+@Category("Brick Breaker")
+@Description("Dibujo de una instantánea del juego")
+class FrameEvent extends jdk.jfr.Event {
+    
+    @Label("Tick")
+    long tick;
+    
+    @Label("Balls")
+    int balls;
+}
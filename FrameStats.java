@@ -0,0 +1,68 @@
+// Estadísticas de tiempo de cuadro: percentiles p50/p99 sobre una ventana y cuadros perdidos
+
+import java.util.Arrays;
+
+
+class FrameStats {
+    
+    // Número de cuadros en la ventana de percentiles
+    private static final int WINDOW = 240;
+    
+    private final long[] frameNanos = new long[WINDOW];
+    private final long[] sorted = new long[WINDOW];
+    private int count;
+    private int next;
+    
+    private long lastFrameStart;
+    private long targetNanos;
+    private long droppedFrames;
+    private long totalFrames;
+    
+    public FrameStats(long targetNanos) {
+        this.targetNanos = targetNanos;
+    }
+    
+    // Registra el inicio de un cuadro; el tiempo desde el anterior es el tiempo de cuadro
+    public void frameStarted(long now) {
+        if (lastFrameStart != 0) {
+            long elapsed = now - lastFrameStart;
+            frameNanos[next] = elapsed;
+            next = (next + 1) % WINDOW;
+            count = Math.min(count + 1, WINDOW);
+            totalFrames++;
+            
+            // Un cuadro que tarda más de 1,5 intervalos se considera perdido
+            if (elapsed > targetNanos + targetNanos / 2) {
+                droppedFrames += Math.max(1, elapsed / targetNanos - 1);
+            }
+        }
+        lastFrameStart = now;
+    }
+    
+    // Percentil (0-100) del tiempo de cuadro en la ventana, en nanosegundos
+    public long percentile(int percent) {
+        if (count == 0) {
+            return 0;
+        }
+        System.arraycopy(frameNanos, 0, sorted, 0, count);
+        Arrays.sort(sorted, 0, count);
+        int index = (int) Math.ceil(percent / 100.0 * count) - 1;
+        return sorted[Math.max(0, Math.min(index, count - 1))];
+    }
+    
+    public void setTargetNanos(long targetNanos) {
+        this.targetNanos = targetNanos;
+    }
+    
+    public long getTargetNanos() {
+        return targetNanos;
+    }
+    
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+    
+    public long getTotalFrames() {
+        return totalFrames;
+    }
+}
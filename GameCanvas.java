@@ -0,0 +1,131 @@
+// Lienzo con renderizado activo (BufferStrategy) y ritmo de cuadros ajustado al refresco de la pantalla
+
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.DisplayMode;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.locks.LockSupport;
+
+
+class GameCanvas extends Canvas {
+    
+    private static final long serialVersionUID = 1L;
+    
+    // Refresco supuesto si la pantalla no informa el suyo
+    private static final int DEFAULT_REFRESH_RATE = 60;
+    
+    // Sesión de juego (motor, bucle y entrada)
+    private final GameSession session;
+    private final GameRenderer renderer;
+    
+    // Sin límite: dibujar tan rápido como se pueda
+    private final boolean uncapped;
+    
+    private RenderThread renderThread;
+    
+    public GameCanvas(GameOptions options) {
+        this.uncapped = options.uncapped;
+        setBackground(Color.BLACK);
+        setFocusable(true);
+        setIgnoreRepaint(true); // El dibujo lo hace el hilo de renderizado, no el EDT
+        setPreferredSize(new Dimension(GameEngine.WIDTH, GameEngine.HEIGHT));
+        
+        renderer = new GameRenderer(Color.BLACK, 1_000_000_000L / DEFAULT_REFRESH_RATE);
+        
+        // La simulación no solicita repintados: el hilo de renderizado lee las instantáneas
+        session = new GameSession(null, options);
+        session.installInput(this, renderer);
+    }
+    
+    // Debe llamarse cuando el lienzo ya es visible (BufferStrategy necesita un componente mostrado)
+    public void startGame() {
+        createBufferStrategy(2);
+        session.start();
+        renderThread = new RenderThread();
+        renderThread.start();
+    }
+    
+    public void stopGame() {
+        if (renderThread != null) {
+            renderThread.stopRendering();
+            try {
+                renderThread.join();
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }
+        session.stop();
+    }
+    
+    // Intervalo entre cuadros según el refresco de la pantalla
+    private long frameIntervalNanos() {
+        int refreshRate = DEFAULT_REFRESH_RATE;
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+        if (configuration != null) {
+            DisplayMode mode = configuration.getDevice().getDisplayMode();
+            if (mode.getRefreshRate() != DisplayMode.REFRESH_RATE_UNKNOWN) {
+                refreshRate = mode.getRefreshRate();
+            }
+        }
+        return 1_000_000_000L / refreshRate;
+    }
+    
+    // Hilo de renderizado activo
+    class RenderThread extends Thread {
+        private volatile boolean isRunning = true;
+        
+        RenderThread() {
+            super("RenderThread");
+            setDaemon(true);
+        }
+        
+        @Override
+        public void run() {
+            long interval = frameIntervalNanos();
+            renderer.getFrameStats().setTargetNanos(interval);
+            long nextFrame = System.nanoTime();
+            
+            while (isRunning) {
+                renderFrame();
+                
+                if (!uncapped) {
+                    // Esperar al siguiente cuadro; si vamos atrasados, no intentar recuperar
+                    nextFrame += interval;
+                    long now = System.nanoTime();
+                    if (nextFrame < now) {
+                        nextFrame = now;
+                    } else {
+                        LockSupport.parkNanos(nextFrame - now);
+                    }
+                }
+            }
+        }
+        
+        private void renderFrame() {
+            BufferStrategy strategy = getBufferStrategy();
+            GameSnapshot snapshot = session.getSnapshot();
+            do {
+                do {
+                    Graphics2D g = (Graphics2D) strategy.getDrawGraphics();
+                    try {
+                        renderer.render(g, snapshot, getWidth(), getHeight());
+                    } finally {
+                        g.dispose();
+                    }
+                } while (strategy.contentsRestored());
+                strategy.show();
+            } while (strategy.contentsLost());
+            
+            // Vaciar la cola de dibujo del sistema de ventanas (evita tirones en Linux)
+            Toolkit.getDefaultToolkit().sync();
+        }
+        
+        void stopRendering() {
+            isRunning = false;
+        }
+    }
+}
@@ -0,0 +1,596 @@
+// Motor de simulación del juego con paso de tiempo fijo, independiente del renderizado
+
+import java.awt.Rectangle;
+
+
+class GameEngine {
+    
+    // Paso de simulación fijo
+    public static final int TICKS_PER_SECOND = 60;
+    public static final long TICK_NANOS = 1_000_000_000L / TICKS_PER_SECOND;
+    
+    // Dimensiones mínimas del área de juego, en unidades del mundo (píxeles a escala 1)
+    public static final int WIDTH = 800;
+    public static final int HEIGHT = 600;
+    
+    // Espacio libre bajo los ladrillos (el del nivel clásico) y altura del paddle sobre el borde inferior
+    private static final int FREE_HEIGHT = 355;
+    private static final int PADDLE_MARGIN = 70;
+    
+    // Límite de bolas simultáneas (el modo caos encadena MULTI_BALL)
+    public static final int MAX_BALLS = 1 << 16;
+    
+    // Bola inicial: centrada y a esta altura sobre el borde inferior
+    private static final float BALL_START_HEIGHT = 200;
+    private static final float BALL_SIZE = 10;
+    private static final float BALL_SPEED = 3;
+    
+    // Paddle inicial
+    private static final int PADDLE_WIDTH = 100;
+    
+    // Efectos temporales: duración de cada recogida y máximo de recogidas que se acumulan
+    private static final int WIDER_PADDLE_TICKS = 10 * TICKS_PER_SECOND;
+    private static final int WIDER_PADDLE_STEP = 30;
+    private static final int WIDER_PADDLE_MAX_STACKS = 3;
+    private static final int SLOW_BALL_TICKS = 8 * TICKS_PER_SECOND;
+    private static final float SLOW_BALL_FACTOR = 0.7f;
+    private static final int SLOW_BALL_MAX_STACKS = 2;
+    
+    // Componentes del juego
+    private Paddle paddle;
+    private final BallPool balls = new BallPool(64);
+    private BrickField brickField;
+    private final Level level;
+    private final Rectangle cellBounds = new Rectangle();
+    private ScoreManager scoreManager;
+    private final PowerUpPool powerUps = new PowerUpPool(PowerUpPool.DEFAULT_CAPACITY);
+    
+    // Efectos activos de los power-ups (por ordinal del tipo) y lo ya aplicado de ellos
+    private final EffectScheduler effects = new EffectScheduler(PowerUp.TYPES.length, 64);
+    private int appliedSlowStacks;
+    private float ballSpeedScale;
+    
+    // Estado del juego
+    private boolean gameOver;
+    private boolean victory;
+    private int lives;
+    private long tick;
+    
+    // Generador de números aleatorios con semilla, para poder repetir una partida
+    private final long seed;
+    private final GameRandom random;
+    
+    // Actualización de bolas (serie o paralelo) con colisiones continuas
+    private final BallUpdater ballUpdater = new BallUpdater();
+    
+    // Métricas por fase (null si no se miden)
+    private GameMetrics metrics;
+    
+    // Partículas de los efectos de impacto (null si no se dibujan: sin pantalla, búsquedas)
+    private ParticleBuffer particles;
+    
+    // Eventos de sonido hacia el mezclador (null sin sonido)
+    private SoundQueue sounds;
+    
+    private final int width;
+    private final int height;
+    
+    public GameEngine() {
+        this(System.nanoTime());
+    }
+    
+    public GameEngine(long seed) {
+        this(WIDTH, HEIGHT, seed, Level.classic());
+    }
+    
+    // El área de juego crece con el nivel para que todos los ladrillos queden dentro
+    public GameEngine(long seed, Level level) {
+        this(worldWidth(level), worldHeight(level), seed, level);
+    }
+    
+    public GameEngine(int width, int height, long seed, Level level) {
+        this.width = width;
+        this.height = height;
+        this.seed = seed;
+        this.level = level;
+        random = new GameRandom(seed);
+        scoreManager = new ScoreManager(level.getRows());
+        reset();
+    }
+    
+    // Ancho del mundo para el nivel: el campo con el mismo margen a ambos lados, como mínimo WIDTH
+    static int worldWidth(Level level) {
+        return Math.max(WIDTH, BrickField.pixelWidth(level.getCols()) + BrickField.SIDE_OFFSET);
+    }
+    
+    static int worldHeight(Level level) {
+        return Math.max(HEIGHT, BrickField.pixelHeight(level.getRows()) + FREE_HEIGHT);
+    }
+    
+    public void reset() {
+        // Reiniciar componentes
+        paddle = new Paddle(width / 2 - PADDLE_WIDTH / 2, height - PADDLE_MARGIN, PADDLE_WIDTH, 15);
+        effects.clear();
+        appliedSlowStacks = 0;
+        ballSpeedScale = 1;
+        balls.clear();
+        balls.add(width / 2f, height - BALL_START_HEIGHT, BALL_SIZE, BALL_SPEED, -BALL_SPEED);
+        brickField = new BrickField(level);
+        scoreManager.resetScore();
+        powerUps.clear();
+        if (particles != null) {
+            particles.clear();
+        }
+        
+        // Reiniciar estado
+        gameOver = false;
+        victory = false;
+        lives = 3;
+        tick = 0;
+    }
+    
+    // Avanza la simulación un paso fijo: bolas (con sus impactos) y power-ups en orden.
+    // Las partículas se mueven antes (también con la partida terminada, para que se apaguen).
+    public void update() {
+        if (particles != null) {
+            long start = metrics != null ? System.nanoTime() : 0;
+            particles.update();
+            if (metrics != null) {
+                metrics.record(GameMetrics.Phase.PARTICLES, System.nanoTime() - start);
+            }
+        }
+        if (gameOver) {
+            return;
+        }
+        
+        // Revertir los efectos que terminan en este tick
+        if (effects.expire(tick)) {
+            applyEffects();
+        }
+        
+        moveBalls();
+        long start = metrics != null ? System.nanoTime() : 0;
+        updatePowerUps();
+        if (metrics != null) {
+            metrics.record(GameMetrics.Phase.POWER_UPS, System.nanoTime() - start);
+        }
+        
+        if (brickField.isEmpty() && !gameOver) {
+            victory = true;
+            gameOver = true;
+        }
+        
+        tick++;
+    }
+    
+    public void movePaddle(int x) {
+        if (!gameOver) {
+            paddle.moveTo(x);
+        }
+    }
+    
+    // Movimiento de las bolas con detección continua de colisiones
+    private void moveBalls() {
+        long start = metrics != null ? System.nanoTime() : 0;
+        ballUpdater.update(balls, paddle, brickField, width);
+        long moved = metrics != null ? System.nanoTime() : 0;
+        int changes = brickField.getChangeCount();
+        resolveBrickHits();
+        if (particles != null || sounds != null) {
+            emitBrickEffects(changes);
+        }
+        if (metrics != null) {
+            metrics.record(GameMetrics.Phase.BALLS, moved - start);
+            metrics.record(GameMetrics.Phase.BRICKS, System.nanoTime() - moved);
+        }
+        
+        // Eliminar bolas perdidas (de atrás hacia adelante por el intercambio con la última)
+        float[] y = balls.getYs();
+        for (int i = balls.size() - 1; i >= 0; i--) {
+            if (y[i] >= height) {
+                balls.remove(i);
+                if (metrics != null) {
+                    metrics.increment(GameMetrics.Counter.BALLS_LOST);
+                }
+            }
+        }
+        
+        // Si no quedan bolas, perder una vida
+        if (balls.isEmpty()) {
+            lives--;
+            if (sounds != null) {
+                sounds.post(SoundQueue.Sound.LIFE_LOST, SoundQueue.PAN_CENTER);
+            }
+            if (lives <= 0) {
+                gameOver = true;
+            } else {
+                // Reposicionar una nueva bola
+                float speed = BALL_SPEED * ballSpeedScale;
+                balls.add(width / 2f, height - BALL_START_HEIGHT, BALL_SIZE, speed, -speed);
+            }
+        }
+    }
+    
+    // Aplica los impactos con ladrillos en orden de bola, igual en serie que en paralelo.
+    // Si varias bolas golpean el mismo ladrillo en un tick, lo gana la de menor índice.
+    // El combo se corta cuando cualquier bola toca el paddle.
+    private void resolveBrickHits() {
+        int count = balls.size();
+        for (int i = 0; i < count; i++) {
+            if (ballUpdater.touchedPaddle(i)) {
+                scoreManager.resetCombo();
+                float ballX = balls.getXs()[i] + balls.getSizes()[i] / 2;
+                if (particles != null) {
+                    particles.paddleBurst(ballX, paddle.getY());
+                }
+                if (sounds != null) {
+                    sounds.post(SoundQueue.Sound.PADDLE_HIT, pan(ballX));
+                }
+            }
+            for (int k = 0; k < ballUpdater.getHitCount(i); k++) {
+                int cell = ballUpdater.getHitCell(i, k);
+                if (ballUpdater.ownsHit(i, cell)) {
+                    if (metrics != null) {
+                        metrics.increment(GameMetrics.Counter.BRICK_HITS);
+                    }
+                    scoreManager.addBrickPoints(cell / brickField.getCols(), brickField.hitCell(cell));
+                    
+                    // Generar power-up con cierta probabilidad (en el centro del ladrillo)
+                    if (!brickField.isAlive(cell)) {
+                        brickField.getCellBounds(cell, cellBounds);
+                        spawnPowerUp(cellBounds.x + cellBounds.width/2, cellBounds.y + cellBounds.height/2);
+                    }
+                }
+            }
+        }
+        ballUpdater.releaseClaims();
+        
+        // Reacciones en cadena de los ladrillos explosivos, resueltas enteras en este tick
+        scoreManager.addExplosionPoints(brickField.propagateExplosions());
+    }
+    
+    // Sonido por cada ladrillo golpeado o destruido en este tick (por bolas o explosiones) y una
+    // ráfaga de partículas por cada destruido, leídos del registro de cambios del campo a partir
+    // de la entrada dada
+    private void emitBrickEffects(int fromChange) {
+        int[] changeLog = brickField.getChangeLog();
+        int changeCount = brickField.getChangeCount();
+        for (int i = fromChange; i < changeCount; i++) {
+            int cell = changeLog[i];
+            boolean broken = !brickField.isAlive(cell);
+            brickField.getCellBounds(cell, cellBounds);
+            float centerX = cellBounds.x + cellBounds.width / 2f;
+            if (sounds != null) {
+                sounds.post(broken ? SoundQueue.Sound.BRICK_BREAK : SoundQueue.Sound.BRICK_HIT, pan(centerX));
+            }
+            if (broken && particles != null) {
+                particles.brickBurst(centerX, cellBounds.y + cellBounds.height / 2f,
+                        brickField.getKind(cell).getColor());
+            }
+        }
+    }
+    
+    // Posición en estéreo de un punto del mundo
+    private int pan(float x) {
+        return (int) (x * SoundQueue.PAN_MAX / width);
+    }
+    
+    // Movimiento de los power-ups y colisiones con el paddle
+    private void updatePowerUps() {
+        if (gameOver) {
+            return;
+        }
+        
+        int i = 0;
+        while (i < powerUps.size()) {
+            PowerUp powerUp = powerUps.get(i);
+            powerUp.move();
+            
+            // Eliminar si sale de la pantalla
+            if (powerUp.getY() > height) {
+                powerUps.remove(i);
+                continue;
+            }
+            
+            // Comprobar colisión con paddle
+            if (powerUp.intersects(paddle)) {
+                activatePowerUp(powerUp.getType());
+                if (particles != null) {
+                    particles.powerUpBurst(powerUp.getX(), powerUp.getY(), powerUp.getType().getColor());
+                }
+                if (sounds != null) {
+                    sounds.post(SoundQueue.Sound.POWER_UP, pan(powerUp.getX()));
+                }
+                if (metrics != null) {
+                    metrics.increment(GameMetrics.Counter.POWER_UPS_CAUGHT);
+                }
+                powerUps.remove(i);
+                continue;
+            }
+            i++;
+        }
+    }
+    
+    // Método para crear un power-up con cierta probabilidad
+    private void spawnPowerUp(int x, int y) {
+        // 25% de probabilidad de generar un power-up
+        if (random.nextInt(100) < 25) {
+            PowerUp.PowerUpType randomType = PowerUp.TYPES[random.nextInt(PowerUp.TYPES.length)];
+            if (powerUps.spawn(x, y, randomType) && metrics != null) {
+                metrics.increment(GameMetrics.Counter.POWER_UP_SPAWNS);
+            }
+        }
+    }
+    
+    // Método para activar un power-up
+    private void activatePowerUp(PowerUp.PowerUpType type) {
+        switch (type) {
+            case MULTI_BALL:
+                // Triplicar las bolas actuales, sin superar el límite
+                int currentBallCount = balls.size();
+                int copies = Math.min(currentBallCount, (MAX_BALLS - currentBallCount) / 2);
+                balls.ensureCapacity(currentBallCount + copies * 2);
+                float[] x = balls.getXs();
+                float[] y = balls.getYs();
+                float[] vx = balls.getVelocityXs();
+                float[] vy = balls.getVelocityYs();
+                float[] size = balls.getSizes();
+                for (int i = 0; i < copies; i++) {
+                    // Crear dos bolas nuevas con direcciones ligeramente diferentes
+                    balls.add(x[i], y[i], size[i], vx[i] * 0.9f, vy[i] * 1.1f);
+                    balls.add(x[i], y[i], size[i], vx[i] * 1.1f, vy[i] * 0.9f);
+                }
+                break;
+            
+            case EXTRA_LIFE:
+                lives++;
+                break;
+            
+            case WIDER_PADDLE:
+                effects.add(type.ordinal(), tick + WIDER_PADDLE_TICKS);
+                applyEffects();
+                break;
+            
+            case SLOW_BALL:
+                effects.add(type.ordinal(), tick + SLOW_BALL_TICKS);
+                applyEffects();
+                break;
+        }
+        
+        scoreManager.addPowerUpPoints(25); // Bonus por atrapar power-up
+    }
+    
+    // Ajusta el paddle y la velocidad de las bolas a los efectos activos.
+    // Cada recogida cuenta hasta su límite de acumulación; al expirar se revierte sola.
+    private void applyEffects() {
+        int wider = Math.min(effects.getStacks(PowerUp.PowerUpType.WIDER_PADDLE.ordinal()), WIDER_PADDLE_MAX_STACKS);
+        paddle.setWidth(PADDLE_WIDTH + WIDER_PADDLE_STEP * wider);
+        
+        int slow = Math.min(effects.getStacks(PowerUp.PowerUpType.SLOW_BALL.ordinal()), SLOW_BALL_MAX_STACKS);
+        if (slow != appliedSlowStacks) {
+            balls.scaleVelocities((float) Math.pow(SLOW_BALL_FACTOR, slow - appliedSlowStacks));
+            ballSpeedScale = (float) Math.pow(SLOW_BALL_FACTOR, slow);
+            appliedSlowStacks = slow;
+        }
+    }
+    
+    // Copia el estado completo de la simulación en state (reutilizando sus arreglos) y la devuelve
+    public GameState saveState(GameState state) {
+        state.tick = tick;
+        state.lives = lives;
+        state.gameOver = gameOver;
+        state.victory = victory;
+        state.randomState = random.getState();
+        state.paddleX = paddle.getX();
+        state.paddleWidth = paddle.getWidth();
+        
+        state.effectCount = effects.size();
+        state.effectExpiry = GameState.grow(state.effectExpiry, state.effectCount);
+        state.effectIds = GameState.grow(state.effectIds, state.effectCount);
+        effects.copyTo(state.effectExpiry, state.effectIds);
+        state.appliedSlowStacks = appliedSlowStacks;
+        state.ballSpeedScale = ballSpeedScale;
+        
+        int count = balls.size();
+        state.ballCount = count;
+        state.ballX = GameState.grow(state.ballX, count);
+        state.ballY = GameState.grow(state.ballY, count);
+        state.ballVX = GameState.grow(state.ballVX, count);
+        state.ballVY = GameState.grow(state.ballVY, count);
+        state.ballSize = GameState.grow(state.ballSize, count);
+        System.arraycopy(balls.getXs(), 0, state.ballX, 0, count);
+        System.arraycopy(balls.getYs(), 0, state.ballY, 0, count);
+        System.arraycopy(balls.getVelocityXs(), 0, state.ballVX, 0, count);
+        System.arraycopy(balls.getVelocityYs(), 0, state.ballVY, 0, count);
+        System.arraycopy(balls.getSizes(), 0, state.ballSize, 0, count);
+        
+        count = powerUps.size();
+        state.powerUpCount = count;
+        state.powerUpX = GameState.grow(state.powerUpX, count);
+        state.powerUpY = GameState.grow(state.powerUpY, count);
+        state.powerUpType = GameState.grow(state.powerUpType, count);
+        for (int i = 0; i < count; i++) {
+            PowerUp powerUp = powerUps.get(i);
+            state.powerUpX[i] = powerUp.getX();
+            state.powerUpY[i] = powerUp.getY();
+            state.powerUpType[i] = (byte) powerUp.getType().ordinal();
+        }
+        
+        scoreManager.snapshot(state.score);
+        brickField.saveState(state);
+        return state;
+    }
+    
+    // Vuelve al estado guardado con saveState (de este motor u otro con el mismo nivel) o leído
+    // con GameStateCodec. Solo asigna si el estado tiene más bolas o efectos de los que caben.
+    public void restoreState(GameState state) {
+        brickField.restoreState(state);
+        
+        tick = state.tick;
+        lives = state.lives;
+        gameOver = state.gameOver;
+        victory = state.victory;
+        random.setState(state.randomState);
+        paddle.setX(state.paddleX);
+        paddle.setWidth(state.paddleWidth);
+        
+        effects.restore(state.effectExpiry, state.effectIds, state.effectCount);
+        appliedSlowStacks = state.appliedSlowStacks;
+        ballSpeedScale = state.ballSpeedScale;
+        
+        balls.copyFrom(state.ballX, state.ballY, state.ballSize, state.ballVX, state.ballVY, state.ballCount);
+        
+        powerUps.clear();
+        for (int i = 0; i < state.powerUpCount; i++) {
+            powerUps.spawn(state.powerUpX[i], state.powerUpY[i], PowerUp.TYPES[state.powerUpType[i]]);
+        }
+        
+        scoreManager.restore(state.score);
+        
+        // Las partículas no forman parte del estado: las de antes del salto ya no corresponden
+        if (particles != null) {
+            particles.clear();
+        }
+    }
+    
+    // Resumen de 64 bits del estado completo de la simulación. Dos partidas con la misma semilla
+    // y la misma entrada deben dar el mismo valor; sirve para verificar las repeticiones.
+    public long checksum() {
+        long h = mix(0xCBF29CE484222325L, tick);
+        h = mix(h, scoreManager.getScore());
+        h = mix(h, scoreManager.getCombo());
+        h = mix(h, scoreManager.getMaxCombo());
+        h = mix(h, lives);
+        h = mix(h, (gameOver ? 1 : 0) | (victory ? 2 : 0));
+        h = mix(h, random.getState());
+        
+        h = mix(h, paddle.getX());
+        h = mix(h, paddle.getWidth());
+        
+        float[] x = balls.getXs();
+        float[] y = balls.getYs();
+        float[] vx = balls.getVelocityXs();
+        float[] vy = balls.getVelocityYs();
+        h = mix(h, balls.size());
+        for (int i = 0; i < balls.size(); i++) {
+            h = mix(h, Float.floatToIntBits(x[i]));
+            h = mix(h, Float.floatToIntBits(y[i]));
+            h = mix(h, Float.floatToIntBits(vx[i]));
+            h = mix(h, Float.floatToIntBits(vy[i]));
+        }
+        
+        h = mix(h, brickField.getChangeCount());
+        for (int i = 0; i < brickField.getChangeCount(); i++) {
+            h = mix(h, brickField.getChangedCell(i));
+        }
+        
+        h = mix(h, brickField.getPendingExplosions());
+        
+        h = mix(h, powerUps.size());
+        for (int i = 0; i < powerUps.size(); i++) {
+            PowerUp powerUp = powerUps.get(i);
+            h = mix(h, Float.floatToIntBits(powerUp.getX()));
+            h = mix(h, Float.floatToIntBits(powerUp.getY()));
+            h = mix(h, powerUp.getType().ordinal());
+        }
+        
+        h = mix(h, effects.size());
+        for (int i = 0; i < PowerUp.TYPES.length; i++) {
+            h = mix(h, effects.getStacks(i));
+        }
+        return h;
+    }
+    
+    private static long mix(long h, long value) {
+        h = (h ^ value) * 0x100000001B3L;
+        return h ^ (h >>> 29);
+    }
+    
+    // Mide las fases de cada tick en metrics (null para no medir)
+    public void setMetrics(GameMetrics metrics) {
+        this.metrics = metrics;
+    }
+    
+    public GameMetrics getMetrics() {
+        return metrics;
+    }
+    
+    // Activa los efectos de partículas (null los desactiva); no cambian la simulación ni el checksum
+    public void setParticles(ParticleBuffer particles) {
+        this.particles = particles;
+    }
+    
+    public ParticleBuffer getParticles() {
+        return particles;
+    }
+    
+    // Envía los eventos de sonido a la cola (null los desactiva); tampoco cambian la simulación
+    public void setSounds(SoundQueue sounds) {
+        this.sounds = sounds;
+    }
+    
+    public SoundQueue getSounds() {
+        return sounds;
+    }
+    
+    // Activa o desactiva la actualización paralela de bolas
+    public void setParallel(boolean parallel) {
+        ballUpdater.setParallel(parallel);
+    }
+    
+    public boolean isParallel() {
+        return ballUpdater.isParallel();
+    }
+    
+    public Paddle getPaddle() {
+        return paddle;
+    }
+    
+    public BallPool getBalls() {
+        return balls;
+    }
+    
+    public BrickField getBrickField() {
+        return brickField;
+    }
+    
+    public PowerUpPool getPowerUps() {
+        return powerUps;
+    }
+    
+    public ScoreManager getScoreManager() {
+        return scoreManager;
+    }
+    
+    public int getLives() {
+        return lives;
+    }
+    
+    public boolean isGameOver() {
+        return gameOver;
+    }
+    
+    public boolean isVictory() {
+        return victory;
+    }
+    
+    public long getTick() {
+        return tick;
+    }
+    
+    public long getSeed() {
+        return seed;
+    }
+    
+    public Level getLevel() {
+        return level;
+    }
+    
+    public int getWidth() {
+        return width;
+    }
+    
+    public int getHeight() {
+        return height;
+    }
+}
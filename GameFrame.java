@@ -1,6 +1,11 @@
-// Ventana principal del juego que contiene todos los componentes 
+// Ventana principal del juego que contiene todos los componentes.
+// Se puede redimensionar (la cámara escala el mundo) y F11 alterna la pantalla completa.
 
 import javax.swing.JFrame;
+import java.awt.Component;
+import java.awt.GraphicsDevice;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 
@@ -8,22 +13,73 @@ import java.awt.event.WindowEvent;
 class GameFrame extends JFrame {
     
     private GamePanel gamePanel;
+    private GameCanvas gameCanvas;
     
     public GameFrame() {
+        this(new GameOptions());
+    }
+    
+    // Con options.activeRendering dibuja con BufferStrategy en un hilo propio
+    public GameFrame(GameOptions options) {
         setTitle("Brick Breaker Multihilo con Poderes");
-        setSize(800, 600);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setResizable(true);
+        
+        Component content;
+        if (options.activeRendering) {
+            setIgnoreRepaint(true);
+            gameCanvas = new GameCanvas(options);
+            content = gameCanvas;
+        } else {
+            gamePanel = new GamePanel(options);
+            content = gamePanel;
+        }
+        add(content);
+        pack(); // Ajustar la ventana al tamaño del área de juego
         setLocationRelativeTo(null);
-        setResizable(false);
         
-        gamePanel = new GamePanel();
-        add(gamePanel);
+        // F11: pantalla completa en el dispositivo de la ventana
+        content.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_F11) {
+                    toggleFullscreen();
+                }
+            }
+        });
+        if (options.fullscreen) {
+            toggleFullscreen();
+        }
         
         addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowOpened(WindowEvent e) {
+                if (gameCanvas != null) {
+                    gameCanvas.startGame();
+                    gameCanvas.requestFocus();
+                }
+            }
+            
             @Override
             public void windowClosing(WindowEvent e) {
-                gamePanel.stopGame();
+                if (gameCanvas != null) {
+                    gameCanvas.stopGame();
+                } else {
+                    gamePanel.stopGame();
+                }
             }
         });
     }
+    
+    // Entra o sale de la pantalla completa; si el sistema no la admite se maximiza la ventana
+    private void toggleFullscreen() {
+        GraphicsDevice device = getGraphicsConfiguration().getDevice();
+        if (!device.isFullScreenSupported()) {
+            setExtendedState(getExtendedState() ^ MAXIMIZED_BOTH);
+        } else if (device.getFullScreenWindow() == this) {
+            device.setFullScreenWindow(null);
+        } else {
+            device.setFullScreenWindow(this);
+        }
+    }
 }
@@ -0,0 +1,429 @@
+// Bucle principal con acumulador de paso fijo que avanza el motor y publica instantáneas para el renderizado.
+// Solo este hilo toca el motor: la entrada llega por un buzón y el estado sale por un triple búfer,
+// así que ni el renderizado ni la entrada bloquean la simulación. El hilo lo crea una ThreadFactory
+// (de plataforma o virtual, ver GameThreads) y la pausa usa LockSupport en lugar de un monitor.
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+
+class GameLoop implements Runnable {
+    
+    // Máximo de ticks recuperados por iteración para evitar la "espiral de la muerte"
+    private static final int MAX_CATCH_UP_TICKS = 5;
+    
+    private final GameEngine engine;
+    private final InputMailbox mailbox;
+    private final Runnable renderCallback;
+    
+    // Hilo del bucle (null hasta start)
+    private final ThreadFactory threadFactory;
+    private volatile Thread thread;
+    
+    // Grabación de la entrada (null si no se graba); solo la usa el hilo del bucle
+    private ReplayRecorder recorder;
+    
+    // Tabla de récords (null si no se guardan) y si ya se guardó la partida actual
+    private HighScoreStore highScores;
+    private boolean scoreSaved;
+    
+    // Métricas por fase y contadores (null si no se miden)
+    private GameMetrics metrics;
+    
+    // Solo para preguntar si JFR graba brickbreaker.Tick: sin grabación el tick no crea el evento
+    private final TickEvent tickEventProbe = new TickEvent();
+    private long allocatedAtSecondStart;
+    
+    private volatile boolean isRunning;
+    private volatile boolean isPaused;
+    
+    // Triple búfer de instantáneas: "back" lo escribe la simulación, "front" lo lee el
+    // renderizado y "latest" se intercambia atómicamente entre ambos. Las tres comparten el
+    // registro de cambios de ladrillos.
+    private final GameSnapshot.BrickChanges brickChanges = new GameSnapshot.BrickChanges();
+    private GameSnapshot back = new GameSnapshot(brickChanges);
+    private GameSnapshot front = new GameSnapshot(brickChanges);
+    private final AtomicReference<GameSnapshot> latest = new AtomicReference<>(new GameSnapshot(brickChanges));
+    private long publishedSequence;
+    
+    // Estadísticas de la simulación
+    private volatile int ticksPerSecond;
+    private volatile long lastTickNanos;
+    private volatile long avgTickNanos;
+    private volatile long maxTickNanos;
+    private volatile long blockedMillis;
+    private long ticksThisSecond;
+    private long windowMaxNanos;
+    private long windowTotalNanos;
+    private long secondStart;
+    private long blockedAtSecondStart;
+    private boolean secondStarted;
+    
+    public GameLoop(GameEngine engine, InputMailbox mailbox, Runnable renderCallback) {
+        this(engine, mailbox, renderCallback, GameThreads.factory(GameThreads.Mode.PLATFORM, "GameLoop"));
+    }
+    
+    public GameLoop(GameEngine engine, InputMailbox mailbox, Runnable renderCallback, ThreadFactory threadFactory) {
+        this.engine = engine;
+        this.mailbox = mailbox;
+        this.renderCallback = renderCallback;
+        this.threadFactory = threadFactory;
+        this.isRunning = true;
+    }
+    
+    // Crea el hilo del bucle y lo inicia
+    public void start() {
+        thread = threadFactory.newThread(this);
+        thread.start();
+    }
+    
+    public void join() throws InterruptedException {
+        if (thread != null) {
+            thread.join();
+        }
+    }
+    
+    @Override
+    public void run() {
+        try {
+            runLoop();
+        } finally {
+            finishRecording();
+        }
+    }
+    
+    private void runLoop() {
+        long previous = System.nanoTime();
+        long accumulator = 0;
+        startSecond(previous);
+        
+        while (isRunning) {
+            long inputStart = System.nanoTime();
+            applyCommands();
+            long inputNanos = System.nanoTime() - inputStart;
+            
+            if (isPaused) {
+                publishSnapshot();
+                waitWhilePaused();
+                // No acumular el tiempo que estuvo en pausa
+                previous = System.nanoTime();
+                continue;
+            }
+            
+            long now = System.nanoTime();
+            accumulator += now - previous;
+            previous = now;
+            
+            if (accumulator > MAX_CATCH_UP_TICKS * GameEngine.TICK_NANOS) {
+                accumulator = MAX_CATCH_UP_TICKS * GameEngine.TICK_NANOS;
+            }
+            
+            boolean ticked = false;
+            while (accumulator >= GameEngine.TICK_NANOS) {
+                // La última posición del mouse se lee una sola vez por tick
+                inputStart = System.nanoTime();
+                int paddleX = mailbox.takePaddleX();
+                if (paddleX != InputMailbox.NO_INPUT) {
+                    engine.movePaddle(paddleX);
+                }
+                inputNanos += System.nanoTime() - inputStart;
+                if (metrics != null) {
+                    metrics.record(GameMetrics.Phase.INPUT, inputNanos);
+                }
+                inputNanos = 0;
+                recordTick(paddleX);
+                step();
+                accumulator -= GameEngine.TICK_NANOS;
+                ticked = true;
+            }
+            
+            if (ticked) {
+                saveScore();
+                publishSnapshot();
+            }
+            
+            if (renderCallback != null) {
+                renderCallback.run();
+            }
+            
+            // Dormir hasta el siguiente tick
+            long sleepNanos = GameEngine.TICK_NANOS - accumulator - (System.nanoTime() - previous);
+            if (sleepNanos > 0) {
+                try {
+                    Thread.sleep(sleepNanos / 1_000_000, (int) (sleepNanos % 1_000_000));
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+    
+    // Espera a que el juego continúe o llegue un comando. park puede volver sin motivo,
+    // por eso se vuelve a comprobar la condición; wakeUp hace unpark después de cambiarla.
+    private void waitWhilePaused() {
+        while (isPaused && isRunning && !mailbox.hasCommands()) {
+            LockSupport.park(this);
+            if (Thread.interrupted()) {
+                isRunning = false;
+                return;
+            }
+        }
+    }
+    
+    // Aplica los comandos pendientes del buzón
+    private void applyCommands() {
+        int commands = mailbox.takeCommands();
+        if (commands == 0) {
+            return;
+        }
+        recordCommands(commands);
+        if (applyCommands(engine, commands)) {
+            isPaused = false;
+            scoreSaved = false;
+        }
+        publishSnapshot();
+    }
+    
+    // Aplica los comandos al motor (también al repetir una grabación); devuelve true si reinició
+    static boolean applyCommands(GameEngine engine, int commands) {
+        boolean restarted = false;
+        if ((commands & InputMailbox.COMMAND_RESTART) != 0 && engine.isGameOver()) {
+            engine.reset();
+            restarted = true;
+        }
+        if ((commands & InputMailbox.COMMAND_TOGGLE_PARALLEL) != 0) {
+            engine.setParallel(!engine.isParallel());
+        }
+        return restarted;
+    }
+    
+    // Graba la entrada antes de iniciar el bucle; el archivo se cierra al terminar
+    public void setRecorder(ReplayRecorder recorder) {
+        this.recorder = recorder;
+    }
+    
+    // Guarda las puntuaciones al terminar cada partida; se fija antes de iniciar el bucle
+    public void setHighScores(HighScoreStore highScores) {
+        this.highScores = highScores;
+    }
+    
+    // Encola la puntuación de la partida que acaba de terminar (no bloquea)
+    private void saveScore() {
+        if (highScores != null && !scoreSaved && engine.isGameOver()) {
+            highScores.submit(engine.getScoreManager().getScore(), engine.getSeed(), engine.getTick(),
+                    engine.isVictory());
+            scoreSaved = true;
+        }
+    }
+    
+    // Mide las fases del bucle y del motor; se fija antes de iniciar el bucle. Con métricas
+    // también se activa la medida del tiempo bloqueado, que es un ajuste de toda la JVM.
+    public void setMetrics(GameMetrics metrics) {
+        this.metrics = metrics;
+        engine.setMetrics(metrics);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (metrics != null && threads.isThreadContentionMonitoringSupported()) {
+            threads.setThreadContentionMonitoringEnabled(true);
+        }
+    }
+    
+    private void recordTick(int paddleX) {
+        if (recorder != null) {
+            try {
+                recorder.recordTick(paddleX);
+            } catch (IOException e) {
+                e.printStackTrace();
+                recorder = null;
+            }
+        }
+    }
+    
+    private void recordCommands(int commands) {
+        if (recorder != null) {
+            try {
+                recorder.recordCommands(commands);
+            } catch (IOException e) {
+                e.printStackTrace();
+                recorder = null;
+            }
+        }
+    }
+    
+    private void finishRecording() {
+        if (recorder != null) {
+            try {
+                recorder.finish(engine);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            recorder = null;
+        }
+    }
+    
+    // Ejecuta un tick y actualiza las estadísticas
+    private void step() {
+        TickEvent event = tickEventProbe.isEnabled() ? new TickEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        long start = System.nanoTime();
+        engine.update();
+        long end = System.nanoTime();
+        if (event != null) {
+            event.end();
+        }
+        
+        lastTickNanos = end - start;
+        if (metrics != null) {
+            metrics.record(GameMetrics.Phase.TICK, lastTickNanos);
+            metrics.increment(GameMetrics.Counter.TICKS);
+        }
+        if (event != null && event.shouldCommit()) {
+            if (metrics != null) {
+                metrics.fillTickEvent(event, engine);
+            } else {
+                event.tick = engine.getTick();
+                event.balls = engine.getBalls().size();
+            }
+            event.commit();
+        }
+        
+        if (lastTickNanos > windowMaxNanos) {
+            windowMaxNanos = lastTickNanos;
+        }
+        windowTotalNanos += lastTickNanos;
+        
+        // Publicar las estadísticas cada segundo
+        ticksThisSecond++;
+        if (end - secondStart >= 1_000_000_000L) {
+            ticksPerSecond = (int) ticksThisSecond;
+            maxTickNanos = windowMaxNanos;
+            avgTickNanos = windowTotalNanos / ticksThisSecond;
+            long blocked = blockedTimeMillis();
+            blockedMillis = blocked - blockedAtSecondStart;
+            blockedAtSecondStart = blocked;
+            if (metrics != null) {
+                long allocated = allocatedBytes();
+                metrics.add(GameMetrics.Counter.ALLOCATED_BYTES, allocated - allocatedAtSecondStart);
+                metrics.add(GameMetrics.Counter.BLOCKED_MILLIS, Math.max(blockedMillis, 0));
+                allocatedAtSecondStart = allocated;
+            }
+            ticksThisSecond = 0;
+            windowMaxNanos = 0;
+            windowTotalNanos = 0;
+            secondStart = end;
+        }
+    }
+    
+    // Empieza la ventana de un segundo de las estadísticas en el hilo que ejecuta los ticks
+    private void startSecond(long now) {
+        secondStart = now;
+        blockedAtSecondStart = blockedTimeMillis();
+        allocatedAtSecondStart = allocatedBytes();
+        secondStarted = true;
+    }
+    
+    // Tiempo total que el hilo actual (el que ejecuta los ticks: el del bucle o el que llama a
+    // runTicks) estuvo bloqueado esperando monitores (-1 si la JVM no lo mide, como en los hilos
+    // virtuales, o si la medida está desactivada: sin métricas no se toca el ajuste de la JVM)
+    private long blockedTimeMillis() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadContentionMonitoringSupported() || !threads.isThreadContentionMonitoringEnabled()) {
+            return -1;
+        }
+        ThreadInfo info = threads.getThreadInfo(Thread.currentThread().getId());
+        return info != null ? info.getBlockedTime() : -1;
+    }
+    
+    // Bytes asignados por el hilo actual desde que empezó (0 si la JVM no lo mide)
+    private long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads =
+                    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return Math.max(threads.getThreadAllocatedBytes(Thread.currentThread().getId()), 0);
+            }
+        }
+        return 0;
+    }
+    
+    // Ejecuta ticks sin pausas ni renderizado (modo sin pantalla)
+    public void runTicks(long ticks) {
+        if (!secondStarted) {
+            startSecond(System.nanoTime());
+        }
+        for (long i = 0; i < ticks && !engine.isGameOver(); i++) {
+            step();
+        }
+    }
+    
+    public void setPaused(boolean paused) {
+        isPaused = paused;
+        wakeUp();
+    }
+    
+    public boolean isPaused() {
+        return isPaused;
+    }
+    
+    // Despierta al bucle si está en pausa, para que atienda comandos o continúe
+    public void wakeUp() {
+        Thread loopThread = thread;
+        if (loopThread != null) {
+            LockSupport.unpark(loopThread);
+        }
+    }
+    
+    public void stopLoop() {
+        isRunning = false;
+        wakeUp();
+    }
+    
+    // Copia el estado actual en el búfer trasero y lo intercambia con el publicado.
+    // Solo desde el hilo del bucle (o antes de iniciarlo).
+    public void publishSnapshot() {
+        back.capture(engine, isPaused);
+        back.sequence = ++publishedSequence;
+        back.ticksPerSecond = ticksPerSecond;
+        back.avgTickNanos = avgTickNanos;
+        back.maxTickNanos = maxTickNanos;
+        back.blockedMillis = blockedMillis;
+        back.coalescedInputs = mailbox.getCoalescedInputs();
+        back.highScore = highScores != null ? Math.max(highScores.getBest(), back.score) : 0;
+        back = latest.getAndSet(back);
+    }
+    
+    // Instantánea más reciente. Debe llamarla siempre el mismo hilo lector
+    // (el EDT o el hilo de renderizado activo), que la usa hasta la siguiente llamada.
+    public GameSnapshot getSnapshot() {
+        if (latest.get().sequence > front.sequence) {
+            front = latest.getAndSet(front);
+        }
+        return front;
+    }
+    
+    public int getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+    
+    public long getLastTickNanos() {
+        return lastTickNanos;
+    }
+    
+    public long getAvgTickNanos() {
+        return avgTickNanos;
+    }
+    
+    public long getMaxTickNanos() {
+        return maxTickNanos;
+    }
+    
+    public long getBlockedMillis() {
+        return blockedMillis;
+    }
+}
@@ -0,0 +1,260 @@
+// Métricas del juego: histogramas de tiempo por fase y contadores, sin bloqueos.
+// Se exportan por JMX (BrickBreaker:type=GameMetrics, p. ej. con jconsole) y los ticks y cuadros
+// también como eventos JFR (TickEvent, FrameEvent).
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+
+
+class GameMetrics {
+    
+    // Fases medidas, en nanosegundos
+    enum Phase {
+        INPUT,       // comandos y posición del paddle leídos del buzón
+        BALLS,       // movimiento de las bolas con colisiones continuas
+        BRICKS,      // aplicar los impactos con ladrillos y las explosiones
+        POWER_UPS,   // movimiento y recogida de power-ups
+        PARTICLES,   // movimiento de las partículas de los efectos
+        TICK,        // tick completo del motor
+        RENDER       // dibujo de un cuadro
+    }
+    
+    enum Counter {
+        TICKS,
+        FRAMES,
+        BRICK_HITS,
+        POWER_UP_SPAWNS,
+        POWER_UPS_CAUGHT,
+        BALLS_LOST,
+        ALLOCATED_BYTES,   // asignado por el hilo de simulación (se muestrea una vez por segundo)
+        BLOCKED_MILLIS     // tiempo del hilo de simulación bloqueado en monitores
+    }
+    
+    static final String OBJECT_NAME = "BrickBreaker:type=GameMetrics";
+    
+    private final Histogram[] histograms = new Histogram[Phase.values().length];
+    private final LongAdder[] counters = new LongAdder[Counter.values().length];
+    
+    // Fases del último tick, para el evento JFR (solo el hilo de simulación)
+    private long lastBallNanos;
+    private long lastBrickNanos;
+    private long lastPowerUpNanos;
+    
+    private ObjectName registeredName;
+    
+    public GameMetrics() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new Histogram();
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+    }
+    
+    public void record(Phase phase, long nanos) {
+        histograms[phase.ordinal()].record(nanos);
+        switch (phase) {
+            case BALLS:
+                lastBallNanos = nanos;
+                break;
+            case BRICKS:
+                lastBrickNanos = nanos;
+                break;
+            case POWER_UPS:
+                lastPowerUpNanos = nanos;
+                break;
+            default:
+                break;
+        }
+    }
+    
+    public void add(Counter counter, long amount) {
+        counters[counter.ordinal()].add(amount);
+    }
+    
+    public void increment(Counter counter) {
+        counters[counter.ordinal()].increment();
+    }
+    
+    public Histogram getHistogram(Phase phase) {
+        return histograms[phase.ordinal()];
+    }
+    
+    public long getCount(Counter counter) {
+        return counters[counter.ordinal()].sum();
+    }
+    
+    // Completa el evento JFR de un tick con las fases medidas por el motor
+    void fillTickEvent(TickEvent event, GameEngine engine) {
+        event.tick = engine.getTick();
+        event.balls = engine.getBalls().size();
+        event.ballNanos = lastBallNanos;
+        event.brickNanos = lastBrickNanos;
+        event.powerUpNanos = lastPowerUpNanos;
+    }
+    
+    public void reset() {
+        for (Histogram histogram : histograms) {
+            histogram.reset();
+        }
+        for (LongAdder counter : counters) {
+            counter.reset();
+        }
+    }
+    
+    // Publica las métricas en el servidor JMX de la plataforma (reemplaza a las de otra sesión)
+    public void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(new JmxView(), name);
+            registeredName = name;
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    public void unregister() {
+        if (registeredName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+        } catch (JMException e) {
+            // Ya la reemplazó otra sesión
+        }
+        registeredName = null;
+    }
+    
+    // Tabla de fases y contadores (modo sin pantalla)
+    public void printReport(PrintStream out) {
+        out.printf("%-10s %12s %10s %10s %10s %10s%n", "Phase", "count", "mean us", "p50 us", "p99 us", "max us");
+        for (Phase phase : Phase.values()) {
+            Histogram histogram = getHistogram(phase);
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            out.printf("%-10s %12d %10.2f %10.2f %10.2f %10.2f%n", phase.name().toLowerCase(), histogram.getCount(),
+                    histogram.getMean() / 1e3, histogram.percentile(50) / 1e3, histogram.percentile(99) / 1e3,
+                    histogram.getMax() / 1e3);
+        }
+        for (Counter counter : Counter.values()) {
+            out.printf("%-18s %d%n", counter.name().toLowerCase(), getCount(counter));
+        }
+    }
+    
+    // BALLS_LOST -> BallsLost
+    private static String attributeName(Enum<?> value) {
+        StringBuilder name = new StringBuilder();
+        for (String part : value.name().split("_")) {
+            name.append(part.charAt(0)).append(part.substring(1).toLowerCase());
+        }
+        return name.toString();
+    }
+    
+    // Vista JMX: por cada fase <Fase>Count, MeanMicros, P50Micros, P99Micros y MaxMicros;
+    // por cada contador un atributo con su nombre; y la operación reset
+    class JmxView implements DynamicMBean {
+        
+        private static final String[] STATS = {"Count", "MeanMicros", "P50Micros", "P99Micros", "MaxMicros"};
+        
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            for (Phase phase : Phase.values()) {
+                String prefix = attributeName(phase);
+                if (attribute.startsWith(prefix)) {
+                    Histogram histogram = getHistogram(phase);
+                    switch (attribute.substring(prefix.length())) {
+                        case "Count":
+                            return histogram.getCount();
+                        case "MeanMicros":
+                            return histogram.getMean() / 1e3;
+                        case "P50Micros":
+                            return histogram.percentile(50) / 1e3;
+                        case "P99Micros":
+                            return histogram.percentile(99) / 1e3;
+                        case "MaxMicros":
+                            return histogram.getMax() / 1e3;
+                        default:
+                            break;
+                    }
+                }
+            }
+            for (Counter counter : Counter.values()) {
+                if (attribute.equals(attributeName(counter))) {
+                    return getCount(counter);
+                }
+            }
+            throw new AttributeNotFoundException(attribute);
+        }
+        
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            AttributeList list = new AttributeList();
+            for (String attribute : attributes) {
+                try {
+                    list.add(new Attribute(attribute, getAttribute(attribute)));
+                } catch (AttributeNotFoundException e) {
+                    // Los atributos desconocidos se omiten
+                }
+            }
+            return list;
+        }
+        
+        @Override
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException("Read-only: " + attribute.getName());
+        }
+        
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+        
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+            if ("reset".equals(actionName)) {
+                reset();
+                return null;
+            }
+            throw new ReflectionException(new NoSuchMethodException(actionName));
+        }
+        
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            List<MBeanAttributeInfo> attributes = new ArrayList<>();
+            for (Phase phase : Phase.values()) {
+                for (String stat : STATS) {
+                    String type = stat.equals("Count") ? "long" : "double";
+                    attributes.add(new MBeanAttributeInfo(attributeName(phase) + stat, type,
+                            phase.name().toLowerCase() + " " + stat, true, false, false));
+                }
+            }
+            for (Counter counter : Counter.values()) {
+                attributes.add(new MBeanAttributeInfo(attributeName(counter), "long",
+                        counter.name().toLowerCase(), true, false, false));
+            }
+            MBeanOperationInfo reset = new MBeanOperationInfo("reset", "Vacía histogramas y contadores",
+                    null, "void", MBeanOperationInfo.ACTION);
+            return new MBeanInfo(GameMetrics.class.getName(), "Brick Breaker game metrics",
+                    attributes.toArray(new MBeanAttributeInfo[0]), null, new MBeanOperationInfo[] {reset}, null);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+// Opciones de la línea de comandos para el juego con ventana
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+
+class GameOptions {
+    
+    // Renderizado activo con BufferStrategy y, opcionalmente, sin límite de cuadros
+    boolean activeRendering;
+    boolean uncapped;
+    
+    // Semilla de la partida (la misma semilla y la misma entrada repiten la partida)
+    long seed = System.nanoTime();
+    
+    // Nivel a jugar (null para el clásico de 8x8)
+    Path levelPath;
+    
+    // Archivo donde grabar la entrada para repetirla con --replay (null si no se graba)
+    Path recordPath;
+    
+    // Tabla de récords (null para no guardar puntuaciones); por defecto en el directorio del
+    // usuario, no en el de trabajo, para que sea la misma se lance el juego desde donde se lance
+    Path scoresPath = Paths.get(System.getProperty("user.home"), ".brickbreaker", "highscores.log");
+    
+    // Hilo del bucle de juego: de plataforma o virtual
+    GameThreads.Mode threads = GameThreads.Mode.PLATFORM;
+    
+    // Empezar a pantalla completa (F11 alterna durante la partida)
+    boolean fullscreen;
+    
+    // Partículas simultáneas de los efectos de impacto (0 las desactiva)
+    int particles = ParticleBuffer.DEFAULT_BUDGET;
+    
+    // Sonido, y directorio con .wav que reemplazan a los sintetizados (null para usar estos)
+    boolean sound = true;
+    Path soundsPath;
+    
+    static GameOptions parse(String[] args) {
+        GameOptions options = new GameOptions();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--active":
+                    options.activeRendering = true;
+                    break;
+                case "--uncapped":
+                    options.uncapped = true;
+                    break;
+                case "--seed":
+                    options.seed = Long.parseLong(args[++i]);
+                    break;
+                case "--level":
+                    options.levelPath = Paths.get(args[++i]);
+                    break;
+                case "--record":
+                    options.recordPath = Paths.get(args[++i]);
+                    break;
+                case "--scores":
+                    options.scoresPath = Paths.get(args[++i]);
+                    break;
+                case "--no-scores":
+                    options.scoresPath = null;
+                    break;
+                case "--threads":
+                    options.threads = GameThreads.parseMode(args[++i]);
+                    break;
+                case "--fullscreen":
+                    options.fullscreen = true;
+                    break;
+                case "--particles":
+                    options.particles = Integer.parseInt(args[++i]);
+                    break;
+                case "--no-sound":
+                    options.sound = false;
+                    break;
+                case "--sounds":
+                    options.soundsPath = Paths.get(args[++i]);
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.err.println("Usage: [--active] [--uncapped] [--seed S] [--level file] [--record file]"
+                            + " [--scores file | --no-scores] [--threads platform|virtual] [--fullscreen]"
+                            + " [--particles N] [--no-sound | --sounds dir]");
+                    System.exit(2);
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,40 @@
+// Generador pseudoaleatorio con semilla y estado de 64 bits (SplitMix64): el mismo estado
+// produce siempre la misma secuencia, así que una partida se puede repetir exactamente
+
+class GameRandom {
+    
+    private long state;
+    
+    public GameRandom(long seed) {
+        this.state = seed;
+    }
+    
+    public long nextLong() {
+        long z = (state += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+    
+    // Entero uniforme en [0, bound)
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive: " + bound);
+        }
+        // Multiplicar los 31 bits altos por bound y quedarse con la parte alta (sin divisiones)
+        return (int) (((nextLong() >>> 33) * bound) >>> 31);
+    }
+    
+    public float nextFloat() {
+        return (nextLong() >>> 40) * 0x1.0p-24f;
+    }
+    
+    // Estado interno, para guardarlo junto a una instantánea o una grabación
+    public long getState() {
+        return state;
+    }
+    
+    public void setState(long state) {
+        this.state = state;
+    }
+}
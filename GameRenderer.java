@@ -0,0 +1,327 @@
+// Dibuja una instantánea del juego; lo usan tanto el panel Swing como el lienzo de renderizado activo.
+// El mundo se ve a través de una cámara (se escala a la ventana o la sigue la acción) y solo se
+// dibuja lo que cae dentro de la vista; el HUD va en coordenadas de pantalla.
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+
+class GameRenderer {
+    
+    // Cada cuántos cuadros se recalculan los percentiles del tiempo de cuadro
+    private static final int FRAME_STATS_INTERVAL = 30;
+    
+    // Margen del recorte de power-ups (se dibujan centrados en su posición)
+    private static final float POWER_UP_MARGIN = 20;
+    
+    private final Color background;
+    private final BrickLayer brickLayer;
+    private final Camera camera = new Camera();
+    private final FrameStats frameStats;
+    private boolean showFrameStats = true;
+    
+    private final Font hudFont = new Font("SansSerif", Font.BOLD, 16);
+    private final Font statsFont = new Font("SansSerif", Font.PLAIN, 11);
+    
+    // Orden de dibujo de las partículas agrupadas por color (una ordenación por conteo por cuadro)
+    private int[] particleOrder = new int[0];
+    private final int[] colorStarts = new int[ParticleBuffer.MAX_COLORS + 1];
+    
+    // Bola pre-renderizada: fillOval con antialiasing crea objetos en cada llamada
+    private BufferedImage ballSprite;
+    
+    // Textos del HUD: solo se reconstruyen cuando cambian sus valores
+    private final HudText scoreText = new HudText("Score: ");
+    private final HudText comboText = new HudText("Combo x");
+    private final HudText highScoreText = new HudText("Best: ");
+    private final HudText livesText = new HudText("Lives: ");
+    private final HudText ballsText = new HudText("Balls: ");
+    private final HudText finalScoreText = new HudText("Final Score: ");
+    private final HudText statsText = new HudText();
+    private boolean statsParallel;
+    private int statsTicksPerSecond = -1;
+    private long statsAvgTickNanos;
+    private long statsMaxTickNanos;
+    private long statsBlockedMillis;
+    private long statsCoalescedInputs;
+    private final HudText frameText = new HudText();
+    private int framesUntilStatsUpdate;
+    
+    // Métricas del dibujo (null si no se miden)
+    private GameMetrics metrics;
+    
+    // Solo para preguntar si JFR graba brickbreaker.Frame: el evento del cuadro se crea solo entonces
+    private final FrameEvent frameEventProbe = new FrameEvent();
+    
+    public GameRenderer(Color background, long targetFrameNanos) {
+        this.background = background;
+        this.brickLayer = new BrickLayer(background);
+        this.frameStats = new FrameStats(targetFrameNanos);
+    }
+    
+    public void render(Graphics2D g2d, GameSnapshot snapshot, int width, int height) {
+        FrameEvent event = frameEventProbe.isEnabled() ? new FrameEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        long start = System.nanoTime();
+        frameStats.frameStarted(start);
+        
+        draw(g2d, snapshot, width, height, start);
+        
+        if (metrics != null) {
+            metrics.record(GameMetrics.Phase.RENDER, System.nanoTime() - start);
+            metrics.increment(GameMetrics.Counter.FRAMES);
+        }
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.tick = snapshot.tick;
+                event.balls = snapshot.ballCount;
+                event.commit();
+            }
+        }
+    }
+    
+    private void draw(Graphics2D g2d, GameSnapshot snapshot, int width, int height, long nowNanos) {
+        
+        // Dibujar con antialiasing
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        
+        // La cámara sigue a la bola más baja (o al paddle si no hay bolas)
+        float focusX = snapshot.paddleX + snapshot.paddleWidth / 2f;
+        float focusY = snapshot.paddleY;
+        for (int i = 0; i < snapshot.ballCount; i++) {
+            if (i == 0 || snapshot.ballY[i] > focusY) {
+                focusX = snapshot.ballX[i];
+                focusY = snapshot.ballY[i];
+            }
+        }
+        camera.update(width, height, snapshot.worldWidth, snapshot.worldHeight, focusX, focusY, nowNanos);
+        
+        // Una sola vista por cuadro: escala y origen siempre del mismo ajuste de la cámara
+        Camera.View view = camera.getView();
+        double scale = view.scale;
+        double originX = view.originX;
+        double originY = view.originY;
+        
+        // Parte visible del mundo
+        float minX = (float) originX;
+        float minY = (float) originY;
+        float maxX = (float) (originX + width / scale);
+        float maxY = (float) (originY + height / scale);
+        
+        // Capa de ladrillos en caché (opaca, va primero): solo cambia cuando se destruye un ladrillo
+        g2d.setColor(background);
+        g2d.fillRect(0, 0, width, height);
+        brickLayer.draw(g2d, snapshot, view, width, height);
+        drawParticles(g2d, snapshot, scale, originX, originY, minX, minY, maxX, maxY);
+        
+        // Paddle y power-ups en coordenadas del mundo; después se vuelve a la transformación guardada
+        // (deshacer la escala con su inversa deja errores de redondeo que se acumulan)
+        AffineTransform screen = g2d.getTransform();
+        g2d.scale(scale, scale);
+        g2d.translate(-originX, -originY);
+        Paddle.draw(g2d, snapshot.paddleX, snapshot.paddleY, snapshot.paddleWidth, snapshot.paddleHeight);
+        for (int i = 0; i < snapshot.powerUpCount; i++) {
+            float x = snapshot.powerUpX[i];
+            float y = snapshot.powerUpY[i];
+            if (x + POWER_UP_MARGIN >= minX && x - POWER_UP_MARGIN <= maxX
+                    && y + POWER_UP_MARGIN >= minY && y - POWER_UP_MARGIN <= maxY) {
+                PowerUp.draw(g2d, x, y, snapshot.powerUpType[i]);
+            }
+        }
+        g2d.setTransform(screen);
+        
+        // Bolas en coordenadas de pantalla, con un sprite del tamaño ya escalado
+        for (int i = 0; i < snapshot.ballCount; i++) {
+            float x = snapshot.ballX[i];
+            float y = snapshot.ballY[i];
+            float size = snapshot.ballSize[i];
+            if (x + size >= minX && x <= maxX && y + size >= minY && y <= maxY) {
+                g2d.drawImage(ballSprite(Math.max(1, (int) Math.round(size * scale))),
+                        (int) ((x - originX) * scale), (int) ((y - originY) * scale), null);
+            }
+        }
+        
+        // Dibujar información del juego
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(hudFont);
+        scoreText.setValue(snapshot.score).draw(g2d, 20, 30);
+        if (snapshot.multiplier > 1) {
+            comboText.setValue(snapshot.multiplier).draw(g2d, 200, 30);
+        }
+        livesText.setValue(snapshot.lives).draw(g2d, width - 100, 30);
+        ballsText.setValue(snapshot.ballCount).draw(g2d, width - 220, 30);
+        if (snapshot.highScore > 0) {
+            highScoreText.setValue(snapshot.highScore).draw(g2d, 320, 30);
+        }
+        
+        // Estadísticas de la simulación y del renderizado
+        g2d.setFont(statsFont);
+        updateStatsText(snapshot);
+        statsText.draw(g2d, 20, height - 10);
+        if (showFrameStats) {
+            updateFrameText();
+            frameText.draw(g2d, 20, height - 25);
+        }
+        g2d.setFont(hudFont);
+        
+        // Mensajes del estado del juego
+        if (snapshot.paused) {
+            drawCenteredString(g2d, "PAUSED", width / 2, height / 2);
+            drawCenteredString(g2d, "Press SPACE to continue", width / 2, height / 2 + 30);
+        }
+        
+        if (snapshot.victory) {
+            drawCenteredString(g2d, "VICTORY!", width / 2, height / 2);
+            finalScoreText.setValue(snapshot.score).drawCentered(g2d, width / 2, height / 2 + 30);
+            drawCenteredString(g2d, "Press R to restart", width / 2, height / 2 + 60);
+        } else if (snapshot.gameOver) {
+            drawCenteredString(g2d, "GAME OVER", width / 2, height / 2);
+            finalScoreText.setValue(snapshot.score).drawCentered(g2d, width / 2, height / 2 + 30);
+            drawCenteredString(g2d, "Press R to restart", width / 2, height / 2 + 60);
+        }
+    }
+    
+    // Partículas como cuadrados en coordenadas de pantalla, agrupadas por color para cambiarlo
+    // una vez por grupo; las que quedan fuera de la vista no se dibujan
+    private void drawParticles(Graphics2D g2d, GameSnapshot snapshot, double scale, double originX, double originY,
+                               float minX, float minY, float maxX, float maxY) {
+        int count = snapshot.particleCount;
+        if (count == 0) {
+            return;
+        }
+        if (particleOrder.length < count) {
+            particleOrder = new int[snapshot.particleX.length];
+        }
+        
+        // Ordenación por conteo: cuántas hay de cada color y dónde empieza cada grupo
+        byte[] color = snapshot.particleColor;
+        Arrays.fill(colorStarts, 0);
+        for (int i = 0; i < count; i++) {
+            colorStarts[(color[i] & 0xFF) + 1]++;
+        }
+        for (int c = 1; c < colorStarts.length; c++) {
+            colorStarts[c] += colorStarts[c - 1];
+        }
+        for (int i = 0; i < count; i++) {
+            particleOrder[colorStarts[color[i] & 0xFF]++] = i;
+        }
+        // Tras colocar, colorStarts[c] es el final del grupo c (y el inicio del siguiente)
+        
+        float[] x = snapshot.particleX;
+        float[] y = snapshot.particleY;
+        float[] size = snapshot.particleSize;
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+        int start = 0;
+        for (int c = 0; c < ParticleBuffer.MAX_COLORS && start < count; c++) {
+            int end = colorStarts[c];
+            if (end > start) {
+                g2d.setColor(snapshot.particlePalette[c]);
+                for (int k = start; k < end; k++) {
+                    int i = particleOrder[k];
+                    if (x[i] < minX || x[i] > maxX || y[i] < minY || y[i] > maxY) {
+                        continue;
+                    }
+                    int side = Math.max(1, (int) (size[i] * scale + 0.5f));
+                    int left = (int) ((x[i] - originX) * scale) - side / 2;
+                    int top = (int) ((y[i] - originY) * scale) - side / 2;
+                    g2d.fillRect(left, top, side, side);
+                }
+            }
+            start = end;
+        }
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    }
+    
+    // Línea de estadísticas de la simulación; se reescribe solo si cambió algún valor
+    private void updateStatsText(GameSnapshot snapshot) {
+        if (statsText.length() > 0 && snapshot.parallel == statsParallel
+                && snapshot.ticksPerSecond == statsTicksPerSecond
+                && snapshot.avgTickNanos == statsAvgTickNanos
+                && snapshot.maxTickNanos == statsMaxTickNanos
+                && snapshot.blockedMillis == statsBlockedMillis
+                && snapshot.coalescedInputs == statsCoalescedInputs) {
+            return;
+        }
+        statsParallel = snapshot.parallel;
+        statsTicksPerSecond = snapshot.ticksPerSecond;
+        statsAvgTickNanos = snapshot.avgTickNanos;
+        statsMaxTickNanos = snapshot.maxTickNanos;
+        statsBlockedMillis = snapshot.blockedMillis;
+        statsCoalescedInputs = snapshot.coalescedInputs;
+        statsText.clear()
+                .append(statsParallel ? "[parallel]  " : "[serial]  ")
+                .append("TPS: ").append(statsTicksPerSecond)
+                .append("  tick avg: ").appendMillis(statsAvgTickNanos, 3).append(" ms")
+                .append("  max: ").appendMillis(statsMaxTickNanos, 3).append(" ms")
+                .append("  blocked: ").append(statsBlockedMillis).append(" ms/s")
+                .append("  coalesced inputs: ").append(statsCoalescedInputs);
+    }
+    
+    // Línea de tiempos de cuadro; los percentiles se recalculan cada FRAME_STATS_INTERVAL cuadros
+    private void updateFrameText() {
+        if (frameText.length() > 0 && --framesUntilStatsUpdate > 0) {
+            return;
+        }
+        framesUntilStatsUpdate = FRAME_STATS_INTERVAL;
+        frameText.clear()
+                .append("frame p50: ").appendMillis(frameStats.percentile(50), 2).append(" ms")
+                .append("  p99: ").appendMillis(frameStats.percentile(99), 2).append(" ms")
+                .append("  dropped: ").append(frameStats.getDroppedFrames());
+    }
+    
+    // Imagen de la bola para el tamaño dado (todas las bolas suelen tener el mismo)
+    private BufferedImage ballSprite(int size) {
+        if (ballSprite == null || ballSprite.getWidth() != size) {
+            ballSprite = createSpriteImage(size, size);
+            Graphics2D g = ballSprite.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setColor(Color.WHITE);
+            g.fillOval(0, 0, size, size);
+            g.dispose();
+        }
+        return ballSprite;
+    }
+    
+    // Imagen transparente para sprites, compatible con la pantalla si la hay
+    static BufferedImage createSpriteImage(int width, int height) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                .getDefaultConfiguration().createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+    }
+    
+    private void drawCenteredString(Graphics2D g, String text, int x, int y) {
+        FontMetrics metrics = g.getFontMetrics();
+        int textWidth = metrics.stringWidth(text);
+        g.drawString(text, x - textWidth / 2, y);
+    }
+    
+    public void toggleFrameStats() {
+        showFrameStats = !showFrameStats;
+    }
+    
+    public void setMetrics(GameMetrics metrics) {
+        this.metrics = metrics;
+    }
+    
+    public FrameStats getFrameStats() {
+        return frameStats;
+    }
+    
+    // Cámara del último cuadro, para pasar la posición del ratón al mundo
+    public Camera getCamera() {
+        return camera;
+    }
+}
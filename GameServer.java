@@ -0,0 +1,351 @@
+// Servidor de sesiones sin pantalla: un solo hilo con un Selector de NIO atiende las conexiones
+// y avanza a 60 Hz un motor independiente por cliente. Los clientes mandan el paddle y los
+// comandos, y reciben tras cada tanda de ticks un STATE con solo lo que cambió (ver ServerProtocol).
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+
+class GameServer {
+    
+    public static final int DEFAULT_PORT = 7777;
+    
+    // Máximo de ticks recuperados por iteración, como en GameLoop
+    private static final int MAX_CATCH_UP_TICKS = 5;
+    
+    // Cada cuántos segundos se imprimen las estadísticas
+    private static final long REPORT_NANOS = 5_000_000_000L;
+    
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final int maxSessions;
+    private final Level level;
+    
+    private final List<Session> sessions = new ArrayList<>();
+    private int nextSessionId;
+    
+    // Estadísticas del último intervalo
+    private final Histogram tickNanos = new Histogram();
+    private long ticks;
+    private long bytesIn;
+    private long bytesOut;
+    private long frames;
+    private long skippedFrames;
+    
+    public GameServer(InetAddress address, int port, int maxSessions, Level level) throws IOException {
+        this.maxSessions = maxSessions;
+        this.level = level;
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(address, port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+    
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        
+        // Solo conexiones locales salvo que se pida otra dirección: el protocolo no autentica
+        InetAddress address = InetAddress.getLoopbackAddress();
+        int port = DEFAULT_PORT;
+        int maxSessions = 4096;
+        Level level = Level.classic();
+        
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--bind":
+                    address = InetAddress.getByName(args[++i]);
+                    break;
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "--max-sessions":
+                    maxSessions = Integer.parseInt(args[++i]);
+                    break;
+                case "--level":
+                    level = HeadlessRunner.loadLevel(Paths.get(args[++i]));
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.err.println("Usage: --server [--bind address] [--port P] [--max-sessions N] [--level file]");
+                    System.exit(2);
+            }
+        }
+        
+        GameServer server = new GameServer(address, port, maxSessions, level);
+        System.out.printf("Listening on %s port %d (up to %d sessions)%n", address.getHostAddress(), port, maxSessions);
+        server.run();
+    }
+    
+    // Bucle del servidor: espera E/S hasta el siguiente tick, avanza las sesiones y envía el estado
+    public void run() throws IOException {
+        long nextTick = System.nanoTime();
+        long nextReport = nextTick + REPORT_NANOS;
+        
+        while (selector.isOpen()) {
+            long waitMillis = (nextTick - System.nanoTime()) / 1_000_000;
+            if (waitMillis > 0) {
+                selector.select(waitMillis);
+            } else {
+                selector.selectNow();
+            }
+            handleKeys();
+            
+            long now = System.nanoTime();
+            int caughtUp = 0;
+            while (now - nextTick >= 0 && caughtUp < MAX_CATCH_UP_TICKS) {
+                long start = System.nanoTime();
+                for (int i = 0; i < sessions.size(); i++) {
+                    sessions.get(i).tick();
+                }
+                tickNanos.record(System.nanoTime() - start);
+                ticks++;
+                nextTick += GameEngine.TICK_NANOS;
+                caughtUp++;
+            }
+            if (caughtUp > 0) {
+                // Si el servidor no da abasto no se acumulan ticks atrasados
+                if (now - nextTick >= 0) {
+                    nextTick = now + GameEngine.TICK_NANOS;
+                }
+                for (int i = sessions.size() - 1; i >= 0; i--) {
+                    sessions.get(i).sendState();
+                }
+            }
+            
+            if (now - nextReport >= 0) {
+                report((now - nextReport + REPORT_NANOS) / 1e9);
+                nextReport = now + REPORT_NANOS;
+            }
+        }
+    }
+    
+    private void handleKeys() {
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            if (!key.isValid()) {
+                continue;
+            }
+            if (key.isAcceptable()) {
+                accept();
+                continue;
+            }
+            Session session = (Session) key.attachment();
+            try {
+                if (key.isReadable()) {
+                    session.read();
+                }
+                if (key.isValid() && key.isWritable()) {
+                    session.flush();
+                }
+            } catch (IOException | RuntimeException e) {
+                // Un cliente que manda basura pierde su sesión, no tira el servidor
+                session.close();
+            }
+        }
+    }
+    
+    private void accept() {
+        try {
+            SocketChannel channel = serverChannel.accept();
+            if (channel == null) {
+                return;
+            }
+            if (sessions.size() >= maxSessions) {
+                channel.close();
+                return;
+            }
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            Session session = new Session(nextSessionId++, channel);
+            session.key = channel.register(selector, SelectionKey.OP_READ, session);
+            sessions.add(session);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    private void report(double seconds) {
+        System.out.printf("sessions %d  ticks/s %.1f  tick p50 %.1f us  p99 %.1f us  out %.1f KB/s/session"
+                        + "  in %.1f KB/s  frames/s %.0f  skipped %d%n",
+                sessions.size(), ticks / seconds, tickNanos.percentile(50) / 1e3, tickNanos.percentile(99) / 1e3,
+                sessions.isEmpty() ? 0 : bytesOut / seconds / 1024 / sessions.size(), bytesIn / seconds / 1024,
+                frames / seconds, skippedFrames);
+        tickNanos.reset();
+        ticks = 0;
+        bytesIn = 0;
+        bytesOut = 0;
+        frames = 0;
+        skippedFrames = 0;
+    }
+    
+    // Una conexión con su motor; todo lo toca solo el hilo del servidor
+    class Session {
+        final int id;
+        final SocketChannel channel;
+        SelectionKey key;
+        
+        GameEngine engine;
+        
+        // Entrada pendiente para el siguiente tick y marca del último INPUT
+        int paddleX = InputMailbox.NO_INPUT;
+        int commands;
+        long echo;
+        
+        // Hasta dónde recibió el cliente el registro de cambios, y de qué campo y generación
+        BrickField sentField;
+        int sentGeneration;
+        int sentChanges;
+        
+        final ByteBuffer in = ByteBuffer.allocate(1024);
+        ByteBuffer out = ByteBuffer.allocate(16 * 1024);
+        
+        Session(int id, SocketChannel channel) {
+            this.id = id;
+            this.channel = channel;
+        }
+        
+        void read() throws IOException {
+            int read = channel.read(in);
+            if (read < 0) {
+                close();
+                return;
+            }
+            bytesIn += read;
+            
+            in.flip();
+            while (in.remaining() >= ServerProtocol.HEADER_SIZE) {
+                int length = in.getInt(in.position());
+                if (length < 1 || length > ServerProtocol.MAX_CLIENT_MESSAGE) {
+                    throw new IOException("Bad message length " + length);
+                }
+                if (in.remaining() < 4 + length) {
+                    break;
+                }
+                int end = in.position() + 4 + length;
+                in.getInt();
+                handle(in.get(), length);
+                in.position(end);
+            }
+            in.compact();
+        }
+        
+        private void handle(byte type, int length) throws IOException {
+            switch (type) {
+                case ServerProtocol.MSG_JOIN:
+                    expectLength(type, length, ServerProtocol.JOIN_LENGTH);
+                    if (engine == null) {
+                        engine = new GameEngine(in.getLong(), level);
+                        sentField = engine.getBrickField();
+                        ensureRoom(ServerProtocol.welcomeSize(engine));
+                        ServerProtocol.writeWelcome(out, id, engine);
+                        flush();
+                    }
+                    break;
+                case ServerProtocol.MSG_INPUT:
+                    expectLength(type, length, ServerProtocol.INPUT_LENGTH);
+                    int x = in.getInt();
+                    if (x != ServerProtocol.NO_PADDLE) {
+                        paddleX = x;
+                    }
+                    commands |= in.get() & 0xFF;
+                    echo = in.getLong();
+                    break;
+                default:
+                    throw new IOException("Unknown message " + type);
+            }
+        }
+        
+        // Sin esto un mensaje corto leería los datos del siguiente o más allá del búfer
+        private void expectLength(byte type, int length, int expected) throws IOException {
+            if (length != expected) {
+                throw new IOException("Bad length " + length + " for message " + type + ", expected " + expected);
+            }
+        }
+        
+        void tick() {
+            if (engine == null) {
+                return;
+            }
+            if (commands != 0) {
+                GameLoop.applyCommands(engine, commands);
+                commands = 0;
+            }
+            if (paddleX != InputMailbox.NO_INPUT) {
+                engine.movePaddle(paddleX);
+                paddleX = InputMailbox.NO_INPUT;
+            }
+            engine.update();
+        }
+        
+        // Envía el estado si el cliente ya leyó el anterior; si no, los cambios se acumulan
+        // para el siguiente (un cliente lento recibe menos cuadros, no más atrasados)
+        void sendState() {
+            if (engine == null || !channel.isOpen()) {
+                return;
+            }
+            if (out.position() > 0) {
+                skippedFrames++;
+                return;
+            }
+            BrickField field = engine.getBrickField();
+            boolean fieldReset = field != sentField || field.getGeneration() != sentGeneration;
+            if (fieldReset) {
+                sentField = field;
+                sentGeneration = field.getGeneration();
+                sentChanges = 0;
+            }
+            ensureRoom(ServerProtocol.stateSize(engine, sentChanges));
+            ServerProtocol.writeState(out, engine, sentChanges, fieldReset, echo);
+            sentChanges = sentField.getChangeCount();
+            frames++;
+            try {
+                flush();
+            } catch (IOException e) {
+                close();
+            }
+        }
+        
+        // Escribe lo que acepte el socket; lo que quede espera a OP_WRITE
+        void flush() throws IOException {
+            out.flip();
+            bytesOut += channel.write(out);
+            out.compact();
+            if (key.isValid()) {
+                key.interestOps(out.position() > 0
+                        ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+            }
+        }
+        
+        private void ensureRoom(int bytes) {
+            if (out.remaining() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + bytes));
+                out.flip();
+                larger.put(out);
+                out = larger;
+            }
+        }
+        
+        void close() {
+            sessions.remove(this);
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Ya estaba cerrado
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+// Sesión de juego: motor, bucle de simulación y entrada del jugador, independiente de cómo se dibuje
+
+import java.awt.Component;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseMotionAdapter;
+import java.io.IOException;
+
+
+class GameSession {
+    
+    // Motor de simulación (solo lo toca el hilo del bucle)
+    private final GameEngine engine;
+    
+    // Bucle del juego (simulación de paso fijo)
+    private final GameLoop gameLoop;
+    
+    // Entrada sin bloqueos hacia la simulación
+    private final InputMailbox mailbox = new InputMailbox();
+    
+    // Tabla de récords (null si no se guardan)
+    private HighScoreStore highScores;
+    
+    // Métricas por fase, publicadas por JMX mientras dura la sesión
+    private final GameMetrics metrics = new GameMetrics();
+    
+    // Mezclador de los sonidos que envía el motor (null sin sonido)
+    private AudioMixer audio;
+    
+    // renderCallback se invoca tras cada tanda de ticks (null si el renderizado va por su cuenta)
+    public GameSession(Runnable renderCallback) {
+        this(renderCallback, new GameOptions());
+    }
+    
+    public GameSession(Runnable renderCallback, GameOptions options) {
+        engine = new GameEngine(options.seed, loadLevel(options));
+        if (options.particles > 0) {
+            engine.setParticles(new ParticleBuffer(options.particles));
+        }
+        if (options.sound) {
+            SoundBank bank = new SoundBank(AudioMixer.SAMPLE_RATE);
+            if (options.soundsPath != null) {
+                bank.load(options.soundsPath);
+            }
+            SoundQueue sounds = new SoundQueue(SoundQueue.DEFAULT_CAPACITY);
+            audio = AudioMixer.open(sounds, bank);
+            engine.setSounds(sounds);
+        }
+        gameLoop = new GameLoop(engine, mailbox, renderCallback, GameThreads.factory(options.threads, "GameLoop"));
+        gameLoop.setMetrics(metrics);
+        metrics.register();
+        
+        // Grabar la entrada si se pidió; sin archivo el juego sigue igual
+        if (options.recordPath != null) {
+            try {
+                gameLoop.setRecorder(new ReplayRecorder(options.recordPath, engine));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        
+        // Sin tabla de récords (archivo ilegible) el juego sigue igual
+        if (options.scoresPath != null) {
+            try {
+                highScores = new HighScoreStore(options.scoresPath);
+                gameLoop.setHighScores(highScores);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        gameLoop.publishSnapshot();
+    }
+    
+    // Nivel pedido en las opciones; si no se puede leer se juega el clásico
+    private static Level loadLevel(GameOptions options) {
+        if (options.levelPath != null) {
+            try {
+                return LevelFormat.load(options.levelPath);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return Level.classic();
+    }
+    
+    public void start() {
+        if (audio != null) {
+            audio.start();
+        }
+        gameLoop.start();
+    }
+    
+    public void stop() {
+        gameLoop.stopLoop();
+        
+        // Esperar a que el bucle termine
+        try {
+            gameLoop.join();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+        
+        metrics.unregister();
+        if (audio != null) {
+            audio.stop();
+        }
+        
+        // Escribir las puntuaciones pendientes
+        if (highScores != null) {
+            try {
+                highScores.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+    
+    // Instala los controles en el componente (mouse para el paddle, teclas para pausar, reiniciar, etc.)
+    // y conecta el renderizador a las métricas de la sesión
+    public void installInput(Component component, GameRenderer renderer) {
+        renderer.setMetrics(metrics);
+        
+        // Controlar el paddle con el mouse
+        component.addMouseMotionListener(new MouseMotionAdapter() {
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                if (!gameLoop.isPaused()) {
+                    // El ratón está en la pantalla; el paddle, en el mundo
+                    mailbox.postPaddleX(renderer.getCamera().toWorldX(e.getX()));
+                }
+            }
+        });
+        
+        // Teclas para pausar y reiniciar
+        component.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_SPACE) {
+                    gameLoop.setPaused(!gameLoop.isPaused());
+                } else if (e.getKeyCode() == KeyEvent.VK_P) {
+                    // Alternar entre actualización de bolas en serie y en paralelo
+                    postCommand(InputMailbox.COMMAND_TOGGLE_PARALLEL);
+                } else if (e.getKeyCode() == KeyEvent.VK_F) {
+                    // Mostrar u ocultar los tiempos de cuadro
+                    renderer.toggleFrameStats();
+                } else if (e.getKeyCode() == KeyEvent.VK_R) {
+                    // El bucle solo reinicia si la partida terminó
+                    postCommand(InputMailbox.COMMAND_RESTART);
+                }
+            }
+        });
+    }
+    
+    private void postCommand(int command) {
+        mailbox.postCommand(command);
+        gameLoop.wakeUp();
+    }
+    
+    // Última instantánea publicada por la simulación (un solo hilo lector)
+    public GameSnapshot getSnapshot() {
+        return gameLoop.getSnapshot();
+    }
+}
@@ -0,0 +1,188 @@
+// Copia del estado del juego que el renderizado lee sin bloquear la simulación.
+// Los arreglos se reutilizan: cada instancia la escribe el hilo de simulación y, una vez
+// publicada, solo la lee el renderizado hasta que la devuelve (ver GameLoop).
+
+import java.awt.Color;
+import java.util.Arrays;
+
+
+class GameSnapshot {
+    
+    // Orden de publicación, para saber si hay una instantánea más reciente
+    long sequence;
+    
+    // Estado general
+    long tick;
+    long score;
+    int multiplier;
+    
+    // Mejor puntuación guardada (0 si no hay tabla de récords)
+    long highScore;
+    int lives;
+    boolean paused;
+    boolean gameOver;
+    boolean victory;
+    boolean parallel;
+    
+    // Tamaño del mundo (área de juego del motor)
+    int worldWidth;
+    int worldHeight;
+    
+    // Bolas
+    int ballCount;
+    float[] ballX = new float[0];
+    float[] ballY = new float[0];
+    float[] ballSize = new float[0];
+    
+    // Paddle
+    int paddleX;
+    int paddleY;
+    int paddleWidth;
+    int paddleHeight;
+    
+    // Power-ups
+    int powerUpCount;
+    float[] powerUpX = new float[0];
+    float[] powerUpY = new float[0];
+    PowerUp.PowerUpType[] powerUpType = new PowerUp.PowerUpType[0];
+    
+    // Partículas: posición, tamaño actual e índice en la paleta, que solo crece y se comparte
+    int particleCount;
+    float[] particleX = new float[0];
+    float[] particleY = new float[0];
+    float[] particleSize = new float[0];
+    byte[] particleColor = new byte[0];
+    Color[] particlePalette;
+    
+    // Ladrillos: el campo (del que el renderizado solo lee el nivel y la geometría) y su registro de
+    // cambios con los golpes que le quedaban a cada celda al capturar (0 si se destruyó). Las
+    // entradas anteriores a changeCount no cambian: el renderizado nunca lee el estado vivo del campo.
+    BrickField brickField;
+    int fieldGeneration;
+    int[] changedCells;
+    byte[] changedStates;
+    int changeCount;
+    
+    // Registro compartido con las demás instantáneas del mismo productor
+    private final BrickChanges brickChanges;
+    
+    GameSnapshot() {
+        this(new BrickChanges());
+    }
+    
+    GameSnapshot(BrickChanges brickChanges) {
+        this.brickChanges = brickChanges;
+    }
+    
+    // Estadísticas de la simulación (se actualizan una vez por segundo, salvo coalescedInputs)
+    int ticksPerSecond;
+    long avgTickNanos;
+    long maxTickNanos;
+    long blockedMillis;
+    long coalescedInputs;
+    
+    // Copia el estado del motor; solo desde el hilo que lo simula
+    void capture(GameEngine engine, boolean paused) {
+        this.tick = engine.getTick();
+        this.score = engine.getScoreManager().getScore();
+        this.multiplier = engine.getScoreManager().getMultiplier();
+        this.lives = engine.getLives();
+        this.paused = paused;
+        this.gameOver = engine.isGameOver();
+        this.victory = engine.isVictory();
+        this.parallel = engine.isParallel();
+        this.worldWidth = engine.getWidth();
+        this.worldHeight = engine.getHeight();
+        
+        BallPool balls = engine.getBalls();
+        ballCount = balls.size();
+        if (ballX.length < ballCount) {
+            int capacity = Math.max(ballCount, ballX.length * 2);
+            ballX = new float[capacity];
+            ballY = new float[capacity];
+            ballSize = new float[capacity];
+        }
+        System.arraycopy(balls.getXs(), 0, ballX, 0, ballCount);
+        System.arraycopy(balls.getYs(), 0, ballY, 0, ballCount);
+        System.arraycopy(balls.getSizes(), 0, ballSize, 0, ballCount);
+        
+        Paddle paddle = engine.getPaddle();
+        this.paddleX = paddle.getX();
+        this.paddleY = paddle.getY();
+        this.paddleWidth = paddle.getWidth();
+        this.paddleHeight = paddle.getHeight();
+        
+        PowerUpPool powerUps = engine.getPowerUps();
+        powerUpCount = powerUps.size();
+        if (powerUpX.length < powerUpCount) {
+            int capacity = Math.max(powerUpCount, powerUpX.length * 2);
+            powerUpX = new float[capacity];
+            powerUpY = new float[capacity];
+            powerUpType = Arrays.copyOf(powerUpType, capacity);
+        }
+        for (int i = 0; i < powerUpCount; i++) {
+            PowerUp powerUp = powerUps.get(i);
+            powerUpX[i] = powerUp.getX();
+            powerUpY[i] = powerUp.getY();
+            powerUpType[i] = powerUp.getType();
+        }
+        
+        ParticleBuffer particles = engine.getParticles();
+        particleCount = 0;
+        if (particles != null && particles.size() > 0) {
+            if (particleX.length < particles.getCapacity()) {
+                // El máximo es el presupuesto: se reserva entero una vez
+                int capacity = particles.getCapacity();
+                particleX = new float[capacity];
+                particleY = new float[capacity];
+                particleSize = new float[capacity];
+                particleColor = new byte[capacity];
+            }
+            particleCount = particles.copyTo(particleX, particleY, particleSize, particleColor);
+            particlePalette = particles.getPalette();
+        }
+        
+        brickChanges.update(engine.getBrickField());
+        this.brickField = brickChanges.field;
+        this.fieldGeneration = brickChanges.generation;
+        this.changedCells = brickChanges.cells;
+        this.changedStates = brickChanges.states;
+        this.changeCount = brickChanges.count;
+    }
+    
+    // Registro de cambios de ladrillos que comparten las instantáneas de un productor, en paralelo al
+    // del campo, con el estado de cada celda copiado al capturar. Solo añade entradas, y al crecer o
+    // al cambiar de campo (o restaurarse) pasa a arreglos nuevos: lo ya publicado no cambia nunca.
+    static class BrickChanges {
+        
+        private BrickField field;
+        private int generation;
+        private int[] cells = new int[64];
+        private byte[] states = new byte[64];
+        private int count;
+        
+        // Copia los cambios del campo desde la última captura; solo desde el hilo que lo simula
+        void update(BrickField brickField) {
+            if (brickField != field || brickField.getGeneration() != generation) {
+                field = brickField;
+                generation = brickField.getGeneration();
+                int capacity = Math.max(64, brickField.getChangeCount());
+                cells = new int[capacity];
+                states = new byte[capacity];
+                count = 0;
+            }
+            int changes = field.getChangeCount();
+            if (changes > cells.length) {
+                int capacity = Math.max(changes, cells.length * 2);
+                cells = Arrays.copyOf(cells, capacity);
+                states = Arrays.copyOf(states, capacity);
+            }
+            for (int i = count; i < changes; i++) {
+                int cell = field.getChangedCell(i);
+                cells[i] = cell;
+                states[i] = (byte) field.getRemainingHits(cell);
+            }
+            count = changes;
+        }
+    }
+}
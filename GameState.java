@@ -0,0 +1,79 @@
+// Estado completo de una partida en arreglos de primitivos, para guardarla, volver atrás o
+// bifurcarla (búsqueda de jugadas). Se reutiliza entre guardados: GameEngine.saveState solo asigna
+// cuando un arreglo se queda pequeño y restoreState no asigna. GameStateCodec lo pasa a binario.
+
+import java.util.Arrays;
+
+
+class GameState {
+    
+    // Estado general
+    long tick;
+    int lives;
+    boolean gameOver;
+    boolean victory;
+    long randomState;
+    
+    // Paddle (el alto y la posición vertical no cambian)
+    int paddleX;
+    int paddleWidth;
+    
+    // Efectos activos: el montículo del EffectScheduler tal cual y lo ya aplicado de ellos
+    int effectCount;
+    long[] effectExpiry = new long[0];
+    byte[] effectIds = new byte[0];
+    int appliedSlowStacks;
+    float ballSpeedScale = 1;
+    
+    // Bolas
+    int ballCount;
+    float[] ballX = new float[0];
+    float[] ballY = new float[0];
+    float[] ballVX = new float[0];
+    float[] ballVY = new float[0];
+    float[] ballSize = new float[0];
+    
+    // Power-ups (tipo por ordinal)
+    int powerUpCount;
+    float[] powerUpX = new float[0];
+    float[] powerUpY = new float[0];
+    byte[] powerUpType = new byte[0];
+    
+    // Puntuación con su desglose
+    final ScoreManager.Stats score = new ScoreManager.Stats();
+    
+    // Ladrillos: dimensiones, celdas destruidas, golpes (si hubo alguno a un ladrillo de varios),
+    // registro de cambios y explosiones pendientes en orden
+    int rows;
+    int cols;
+    long[] destroyed = new long[0];
+    int liveCount;
+    boolean hasDamage;
+    byte[] damage = new byte[0];
+    int changeCount;
+    int[] changeLog = new int[0];
+    int explosionCount;
+    int[] explosions = new int[0];
+    
+    // Campo del que se guardó (o al que se restauró) y su generación en ese momento: si siguen
+    // coincidiendo, guardar y restaurar solo recorren las celdas cambiadas desde entonces
+    BrickField field;
+    int fieldGeneration;
+    
+    // Los arreglos crecen conservando su contenido (el registro de cambios se completa por partes)
+    static long[] grow(long[] values, int length) {
+        return values.length >= length ? values : Arrays.copyOf(values, Math.max(length, values.length * 2));
+    }
+    
+    static int[] grow(int[] values, int length) {
+        return values.length >= length ? values : Arrays.copyOf(values, Math.max(length, values.length * 2));
+    }
+    
+    static float[] grow(float[] values, int length) {
+        return values.length >= length ? values : Arrays.copyOf(values, Math.max(length, values.length * 2));
+    }
+    
+    static byte[] grow(byte[] values, int length) {
+        return values.length >= length ? values : Arrays.copyOf(values, Math.max(length, values.length * 2));
+    }
+}
@@ -0,0 +1,588 @@
+// Formato binario de GameState (big-endian), completo o como diferencia entre dos estados.
+//
+// Completo: int MAGIC ("BBGS"), byte versión y luego
+//   long tick, int vidas, byte flags (1 fin de partida, 2 victoria), long estado del generador,
+//   int x y ancho del paddle, int efectos y por cada uno long expiración y byte tipo,
+//   byte acumulaciones de lentitud aplicadas, float escala de velocidad,
+//   puntuación: long total, int combo, int mejor combo, long combo, explosiones y power-ups,
+//   int filas y un long de puntos por fila,
+//   int bolas y por cada una float x, y, vx, vy, tamaño,
+//   int power-ups y por cada uno float x, y, byte tipo,
+//   int filas, int columnas, int ladrillos vivos, un long por cada 64 celdas (bits destruidos),
+//   byte 1 si hay golpes y entonces un byte por celda, int cambios y sus celdas,
+//   int explosiones pendientes y sus celdas.
+//
+// Diferencia (de base a siguiente): byte secciones (DELTA_*), varint zigzag del avance de ticks,
+// varint vidas y byte flags; después solo las secciones marcadas:
+//   RANDOM    long estado del generador
+//   PADDLE    varint zigzag del desplazamiento, varint ancho
+//   EFFECTS   los efectos como en el formato completo (son pocos)
+//   SCORE     varints de lo sumado a cada total, el combo y las filas que cambiaron (fila, puntos)
+//   BALLS     varint bolas; si son las mismas que en base, por cada una la diferencia de los bits
+//             de sus cinco floats en varint zigzag (moverse unos píxeles cuesta 2-3 bytes); si no, floats
+//   POWER_UPS varint power-ups y cada uno completo
+//   BRICKS    byte 0 y varint cambios añadidos al registro con, por cada uno, varint celda * 2
+//             (+ 1 si quedó destruida) y byte golpes recibidos; o byte 1 y los ladrillos completos si el
+//             registro de base no es un prefijo del siguiente (p. ej. al volver atrás).
+//             Después varint ladrillos vivos y varint explosiones pendientes con sus celdas.
+// Los varint son LEB128 (7 bits por byte). Una diferencia solo se aplica al estado base exacto.
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+
+class GameStateCodec {
+    
+    static final int MAGIC = 0x42424753; // "BBGS"
+    static final byte VERSION = 1;
+    
+    static final int DELTA_RANDOM = 1;
+    static final int DELTA_PADDLE = 2;
+    static final int DELTA_EFFECTS = 4;
+    static final int DELTA_SCORE = 8;
+    static final int DELTA_BALLS = 16;
+    static final int DELTA_POWER_UPS = 32;
+    static final int DELTA_BRICKS = 64;
+    
+    private static final int FLAG_GAME_OVER = 1;
+    private static final int FLAG_VICTORY = 2;
+    
+    private static final int BRICKS_APPENDED = 0;
+    private static final int BRICKS_FULL = 1;
+    
+    // Tamaño exacto del estado en el formato completo
+    static int size(GameState state) {
+        int cells = state.rows * state.cols;
+        return 4 + 1 + 8 + 4 + 1 + 8 + 4 + 4
+                + 4 + 9 * state.effectCount + 1 + 4
+                + 8 + 4 + 4 + 3 * 8 + 4 + 8 * state.score.rowPoints.length
+                + 4 + 20 * state.ballCount
+                + 4 + 9 * state.powerUpCount
+                + 3 * 4 + 8 * ((cells + 63) >>> 6) + 1 + (state.hasDamage ? cells : 0)
+                + 4 + 4 * state.changeCount + 4 + 4 * state.explosionCount;
+    }
+    
+    static void write(GameState state, ByteBuffer out) {
+        out.putInt(MAGIC);
+        out.put(VERSION);
+        out.putLong(state.tick);
+        out.putInt(state.lives);
+        out.put((byte) flags(state));
+        out.putLong(state.randomState);
+        out.putInt(state.paddleX);
+        out.putInt(state.paddleWidth);
+        writeEffects(state, out);
+        writeScore(state.score, out);
+        
+        out.putInt(state.ballCount);
+        for (int i = 0; i < state.ballCount; i++) {
+            out.putFloat(state.ballX[i]);
+            out.putFloat(state.ballY[i]);
+            out.putFloat(state.ballVX[i]);
+            out.putFloat(state.ballVY[i]);
+            out.putFloat(state.ballSize[i]);
+        }
+        out.putInt(state.powerUpCount);
+        writePowerUps(state, out);
+        
+        out.putInt(state.rows);
+        out.putInt(state.cols);
+        writeBricks(state, out);
+    }
+    
+    // Lee un estado completo en state, reutilizando sus arreglos
+    static void read(ByteBuffer in, GameState state) throws IOException {
+        if (in.getInt() != MAGIC) {
+            throw new IOException("Not a game state");
+        }
+        byte version = in.get();
+        if (version != VERSION) {
+            throw new IOException("Unsupported game state version " + version);
+        }
+        state.tick = in.getLong();
+        state.lives = in.getInt();
+        setFlags(state, in.get());
+        state.randomState = in.getLong();
+        state.paddleX = in.getInt();
+        state.paddleWidth = in.getInt();
+        readEffects(in, state);
+        readScore(in, state.score);
+        
+        int balls = in.getInt();
+        resizeBalls(state, balls);
+        for (int i = 0; i < balls; i++) {
+            state.ballX[i] = in.getFloat();
+            state.ballY[i] = in.getFloat();
+            state.ballVX[i] = in.getFloat();
+            state.ballVY[i] = in.getFloat();
+            state.ballSize[i] = in.getFloat();
+        }
+        readPowerUps(in, state, in.getInt());
+        
+        state.rows = in.getInt();
+        state.cols = in.getInt();
+        readBricks(in, state);
+    }
+    
+    static void save(Path path, GameState state) throws IOException {
+        ByteBuffer out = ByteBuffer.allocate(size(state));
+        write(state, out);
+        Files.write(path, out.array());
+    }
+    
+    static GameState load(Path path, GameState state) throws IOException {
+        read(ByteBuffer.wrap(Files.readAllBytes(path)), state);
+        return state;
+    }
+    
+    // Tamaño máximo de la diferencia entre base y next
+    static int maxDeltaSize(GameState base, GameState next) {
+        int appended = Math.max(next.changeCount - base.changeCount, 0);
+        return 1 + 10 + 5 + 1 + 8 + 5 + 5
+                + 4 + 9 * next.effectCount + 1 + 4
+                + 6 * 10 + 5 + 15 * next.score.rowPoints.length
+                + 5 + 25 * next.ballCount
+                + 5 + 9 * next.powerUpCount
+                + 1 + Math.max(size(next), 5 + 6 * appended) + 10 + 5 * next.explosionCount;
+    }
+    
+    // Escribe lo que cambió de base a next
+    static void writeDelta(GameState base, GameState next, ByteBuffer out) {
+        int sectionsAt = out.position();
+        out.put((byte) 0);
+        putVarLong(out, zigzag(next.tick - base.tick));
+        putVarLong(out, next.lives);
+        out.put((byte) flags(next));
+        
+        int sections = 0;
+        if (next.randomState != base.randomState) {
+            sections |= DELTA_RANDOM;
+            out.putLong(next.randomState);
+        }
+        if (next.paddleX != base.paddleX || next.paddleWidth != base.paddleWidth) {
+            sections |= DELTA_PADDLE;
+            putVarLong(out, zigzag(next.paddleX - base.paddleX));
+            putVarLong(out, next.paddleWidth);
+        }
+        if (!sameEffects(base, next)) {
+            sections |= DELTA_EFFECTS;
+            writeEffects(next, out);
+        }
+        if (!sameScore(base.score, next.score)) {
+            sections |= DELTA_SCORE;
+            writeScoreDelta(base.score, next.score, out);
+        }
+        if (!sameBalls(base, next)) {
+            sections |= DELTA_BALLS;
+            writeBallsDelta(base, next, out);
+        }
+        if (!samePowerUps(base, next)) {
+            sections |= DELTA_POWER_UPS;
+            putVarLong(out, next.powerUpCount);
+            writePowerUps(next, out);
+        }
+        if (!sameBricks(base, next)) {
+            sections |= DELTA_BRICKS;
+            writeBricksDelta(base, next, out);
+        }
+        out.put(sectionsAt, (byte) sections);
+    }
+    
+    // Aplica una diferencia a state, que debe ser el estado base con el que se escribió
+    static void readDelta(ByteBuffer in, GameState state) {
+        int sections = in.get();
+        state.tick += unzigzag(getVarLong(in));
+        state.lives = (int) getVarLong(in);
+        setFlags(state, in.get());
+        
+        if ((sections & DELTA_RANDOM) != 0) {
+            state.randomState = in.getLong();
+        }
+        if ((sections & DELTA_PADDLE) != 0) {
+            state.paddleX += (int) unzigzag(getVarLong(in));
+            state.paddleWidth = (int) getVarLong(in);
+        }
+        if ((sections & DELTA_EFFECTS) != 0) {
+            readEffects(in, state);
+        }
+        if ((sections & DELTA_SCORE) != 0) {
+            readScoreDelta(in, state.score);
+        }
+        if ((sections & DELTA_BALLS) != 0) {
+            readBallsDelta(in, state);
+        }
+        if ((sections & DELTA_POWER_UPS) != 0) {
+            readPowerUps(in, state, (int) getVarLong(in));
+        }
+        if ((sections & DELTA_BRICKS) != 0) {
+            readBricksDelta(in, state);
+        }
+    }
+    
+    private static int flags(GameState state) {
+        return (state.gameOver ? FLAG_GAME_OVER : 0) | (state.victory ? FLAG_VICTORY : 0);
+    }
+    
+    private static void setFlags(GameState state, int flags) {
+        state.gameOver = (flags & FLAG_GAME_OVER) != 0;
+        state.victory = (flags & FLAG_VICTORY) != 0;
+    }
+    
+    private static void writeEffects(GameState state, ByteBuffer out) {
+        out.putInt(state.effectCount);
+        for (int i = 0; i < state.effectCount; i++) {
+            out.putLong(state.effectExpiry[i]);
+            out.put(state.effectIds[i]);
+        }
+        out.put((byte) state.appliedSlowStacks);
+        out.putFloat(state.ballSpeedScale);
+    }
+    
+    private static void readEffects(ByteBuffer in, GameState state) {
+        int count = in.getInt();
+        state.effectExpiry = GameState.grow(state.effectExpiry, count);
+        state.effectIds = GameState.grow(state.effectIds, count);
+        for (int i = 0; i < count; i++) {
+            state.effectExpiry[i] = in.getLong();
+            state.effectIds[i] = in.get();
+        }
+        state.effectCount = count;
+        state.appliedSlowStacks = in.get();
+        state.ballSpeedScale = in.getFloat();
+    }
+    
+    private static boolean sameEffects(GameState base, GameState next) {
+        return base.effectCount == next.effectCount
+                && base.appliedSlowStacks == next.appliedSlowStacks
+                && base.ballSpeedScale == next.ballSpeedScale
+                && Arrays.equals(base.effectExpiry, 0, base.effectCount, next.effectExpiry, 0, next.effectCount)
+                && Arrays.equals(base.effectIds, 0, base.effectCount, next.effectIds, 0, next.effectCount);
+    }
+    
+    private static void writeScore(ScoreManager.Stats score, ByteBuffer out) {
+        out.putLong(score.score);
+        out.putInt(score.combo);
+        out.putInt(score.maxCombo);
+        out.putLong(score.comboPoints);
+        out.putLong(score.explosionPoints);
+        out.putLong(score.powerUpPoints);
+        out.putInt(score.rowPoints.length);
+        for (long points : score.rowPoints) {
+            out.putLong(points);
+        }
+    }
+    
+    private static void readScore(ByteBuffer in, ScoreManager.Stats score) {
+        score.score = in.getLong();
+        score.combo = in.getInt();
+        score.maxCombo = in.getInt();
+        score.multiplier = ScoreManager.multiplierFor(score.combo);
+        score.comboPoints = in.getLong();
+        score.explosionPoints = in.getLong();
+        score.powerUpPoints = in.getLong();
+        int rows = in.getInt();
+        if (score.rowPoints.length != rows) {
+            score.rowPoints = new long[rows];
+        }
+        for (int i = 0; i < rows; i++) {
+            score.rowPoints[i] = in.getLong();
+        }
+    }
+    
+    private static boolean sameScore(ScoreManager.Stats base, ScoreManager.Stats next) {
+        return base.score == next.score && base.combo == next.combo && base.maxCombo == next.maxCombo
+                && base.comboPoints == next.comboPoints && base.explosionPoints == next.explosionPoints
+                && base.powerUpPoints == next.powerUpPoints && Arrays.equals(base.rowPoints, next.rowPoints);
+    }
+    
+    // Los totales no bajan salvo al reiniciar, así que van como diferencias en zigzag
+    private static void writeScoreDelta(ScoreManager.Stats base, ScoreManager.Stats next, ByteBuffer out) {
+        putVarLong(out, zigzag(next.score - base.score));
+        putVarLong(out, next.combo);
+        putVarLong(out, next.maxCombo);
+        putVarLong(out, zigzag(next.comboPoints - base.comboPoints));
+        putVarLong(out, zigzag(next.explosionPoints - base.explosionPoints));
+        putVarLong(out, zigzag(next.powerUpPoints - base.powerUpPoints));
+        int changed = 0;
+        for (int i = 0; i < next.rowPoints.length; i++) {
+            if (next.rowPoints[i] != base.rowPoints[i]) {
+                changed++;
+            }
+        }
+        putVarLong(out, changed);
+        for (int i = 0; i < next.rowPoints.length; i++) {
+            if (next.rowPoints[i] != base.rowPoints[i]) {
+                putVarLong(out, i);
+                putVarLong(out, zigzag(next.rowPoints[i] - base.rowPoints[i]));
+            }
+        }
+    }
+    
+    private static void readScoreDelta(ByteBuffer in, ScoreManager.Stats score) {
+        score.score += unzigzag(getVarLong(in));
+        score.combo = (int) getVarLong(in);
+        score.maxCombo = (int) getVarLong(in);
+        score.multiplier = ScoreManager.multiplierFor(score.combo);
+        score.comboPoints += unzigzag(getVarLong(in));
+        score.explosionPoints += unzigzag(getVarLong(in));
+        score.powerUpPoints += unzigzag(getVarLong(in));
+        int changed = (int) getVarLong(in);
+        for (int i = 0; i < changed; i++) {
+            int row = (int) getVarLong(in);
+            score.rowPoints[row] += unzigzag(getVarLong(in));
+        }
+    }
+    
+    private static void resizeBalls(GameState state, int count) {
+        state.ballX = GameState.grow(state.ballX, count);
+        state.ballY = GameState.grow(state.ballY, count);
+        state.ballVX = GameState.grow(state.ballVX, count);
+        state.ballVY = GameState.grow(state.ballVY, count);
+        state.ballSize = GameState.grow(state.ballSize, count);
+        state.ballCount = count;
+    }
+    
+    private static boolean sameBalls(GameState base, GameState next) {
+        int n = next.ballCount;
+        return base.ballCount == n
+                && Arrays.equals(base.ballX, 0, n, next.ballX, 0, n)
+                && Arrays.equals(base.ballY, 0, n, next.ballY, 0, n)
+                && Arrays.equals(base.ballVX, 0, n, next.ballVX, 0, n)
+                && Arrays.equals(base.ballVY, 0, n, next.ballVY, 0, n)
+                && Arrays.equals(base.ballSize, 0, n, next.ballSize, 0, n);
+    }
+    
+    private static void writeBallsDelta(GameState base, GameState next, ByteBuffer out) {
+        putVarLong(out, next.ballCount);
+        if (next.ballCount == base.ballCount) {
+            for (int i = 0; i < next.ballCount; i++) {
+                putFloatDelta(out, base.ballX[i], next.ballX[i]);
+                putFloatDelta(out, base.ballY[i], next.ballY[i]);
+                putFloatDelta(out, base.ballVX[i], next.ballVX[i]);
+                putFloatDelta(out, base.ballVY[i], next.ballVY[i]);
+                putFloatDelta(out, base.ballSize[i], next.ballSize[i]);
+            }
+        } else {
+            for (int i = 0; i < next.ballCount; i++) {
+                out.putFloat(next.ballX[i]);
+                out.putFloat(next.ballY[i]);
+                out.putFloat(next.ballVX[i]);
+                out.putFloat(next.ballVY[i]);
+                out.putFloat(next.ballSize[i]);
+            }
+        }
+    }
+    
+    private static void readBallsDelta(ByteBuffer in, GameState state) {
+        int count = (int) getVarLong(in);
+        if (count == state.ballCount) {
+            for (int i = 0; i < count; i++) {
+                state.ballX[i] = getFloatDelta(in, state.ballX[i]);
+                state.ballY[i] = getFloatDelta(in, state.ballY[i]);
+                state.ballVX[i] = getFloatDelta(in, state.ballVX[i]);
+                state.ballVY[i] = getFloatDelta(in, state.ballVY[i]);
+                state.ballSize[i] = getFloatDelta(in, state.ballSize[i]);
+            }
+        } else {
+            resizeBalls(state, count);
+            for (int i = 0; i < count; i++) {
+                state.ballX[i] = in.getFloat();
+                state.ballY[i] = in.getFloat();
+                state.ballVX[i] = in.getFloat();
+                state.ballVY[i] = in.getFloat();
+                state.ballSize[i] = in.getFloat();
+            }
+        }
+    }
+    
+    private static void writePowerUps(GameState state, ByteBuffer out) {
+        for (int i = 0; i < state.powerUpCount; i++) {
+            out.putFloat(state.powerUpX[i]);
+            out.putFloat(state.powerUpY[i]);
+            out.put(state.powerUpType[i]);
+        }
+    }
+    
+    private static void readPowerUps(ByteBuffer in, GameState state, int count) {
+        state.powerUpX = GameState.grow(state.powerUpX, count);
+        state.powerUpY = GameState.grow(state.powerUpY, count);
+        state.powerUpType = GameState.grow(state.powerUpType, count);
+        for (int i = 0; i < count; i++) {
+            state.powerUpX[i] = in.getFloat();
+            state.powerUpY[i] = in.getFloat();
+            state.powerUpType[i] = in.get();
+        }
+        state.powerUpCount = count;
+    }
+    
+    private static boolean samePowerUps(GameState base, GameState next) {
+        int n = next.powerUpCount;
+        return base.powerUpCount == n
+                && Arrays.equals(base.powerUpX, 0, n, next.powerUpX, 0, n)
+                && Arrays.equals(base.powerUpY, 0, n, next.powerUpY, 0, n)
+                && Arrays.equals(base.powerUpType, 0, n, next.powerUpType, 0, n);
+    }
+    
+    // Ladrillos completos, sin las dimensiones
+    private static void writeBricks(GameState state, ByteBuffer out) {
+        int cells = state.rows * state.cols;
+        out.putInt(state.liveCount);
+        for (int i = 0; i < (cells + 63) >>> 6; i++) {
+            out.putLong(state.destroyed[i]);
+        }
+        out.put((byte) (state.hasDamage ? 1 : 0));
+        if (state.hasDamage) {
+            out.put(state.damage, 0, cells);
+        }
+        out.putInt(state.changeCount);
+        for (int i = 0; i < state.changeCount; i++) {
+            out.putInt(state.changeLog[i]);
+        }
+        out.putInt(state.explosionCount);
+        for (int i = 0; i < state.explosionCount; i++) {
+            out.putInt(state.explosions[i]);
+        }
+    }
+    
+    private static void readBricks(ByteBuffer in, GameState state) {
+        int cells = state.rows * state.cols;
+        int words = (cells + 63) >>> 6;
+        state.liveCount = in.getInt();
+        state.destroyed = GameState.grow(state.destroyed, words);
+        for (int i = 0; i < words; i++) {
+            state.destroyed[i] = in.getLong();
+        }
+        state.hasDamage = in.get() != 0;
+        if (state.hasDamage) {
+            state.damage = GameState.grow(state.damage, cells);
+            in.get(state.damage, 0, cells);
+        }
+        int changes = in.getInt();
+        state.changeLog = GameState.grow(state.changeLog, changes);
+        for (int i = 0; i < changes; i++) {
+            state.changeLog[i] = in.getInt();
+        }
+        state.changeCount = changes;
+        readExplosions(in, state, in.getInt());
+        
+        // Ya no coincide con el campo del que se guardó
+        state.field = null;
+    }
+    
+    private static void readExplosions(ByteBuffer in, GameState state, int count) {
+        state.explosions = GameState.grow(state.explosions, count);
+        for (int i = 0; i < count; i++) {
+            state.explosions[i] = in.getInt();
+        }
+        state.explosionCount = count;
+    }
+    
+    private static boolean sameBricks(GameState base, GameState next) {
+        return base.changeCount == next.changeCount && base.liveCount == next.liveCount
+                && base.explosionCount == next.explosionCount
+                && Arrays.equals(base.explosions, 0, base.explosionCount, next.explosions, 0, next.explosionCount)
+                && Arrays.equals(base.changeLog, 0, base.changeCount, next.changeLog, 0, next.changeCount);
+    }
+    
+    private static void writeBricksDelta(GameState base, GameState next, ByteBuffer out) {
+        boolean appended = base.rows == next.rows && base.cols == next.cols
+                && base.changeCount <= next.changeCount
+                && Arrays.equals(base.changeLog, 0, base.changeCount, next.changeLog, 0, base.changeCount);
+        if (appended) {
+            out.put((byte) BRICKS_APPENDED);
+            putVarLong(out, next.changeCount - base.changeCount);
+            for (int i = base.changeCount; i < next.changeCount; i++) {
+                int cell = next.changeLog[i];
+                boolean destroyed = (next.destroyed[cell >>> 6] & (1L << cell)) != 0;
+                putVarLong(out, ((long) cell << 1) | (destroyed ? 1 : 0));
+                out.put(next.hasDamage ? next.damage[cell] : 0);
+            }
+            putVarLong(out, next.liveCount);
+            putVarLong(out, next.explosionCount);
+            for (int i = 0; i < next.explosionCount; i++) {
+                putVarLong(out, next.explosions[i]);
+            }
+        } else {
+            out.put((byte) BRICKS_FULL);
+            out.putInt(next.rows);
+            out.putInt(next.cols);
+            writeBricks(next, out);
+        }
+    }
+    
+    private static void readBricksDelta(ByteBuffer in, GameState state) {
+        if (in.get() == BRICKS_FULL) {
+            state.rows = in.getInt();
+            state.cols = in.getInt();
+            readBricks(in, state);
+            return;
+        }
+        int changes = (int) getVarLong(in);
+        state.changeLog = GameState.grow(state.changeLog, state.changeCount + changes);
+        for (int i = 0; i < changes; i++) {
+            long entry = getVarLong(in);
+            int cell = (int) (entry >>> 1);
+            byte damage = in.get();
+            state.changeLog[state.changeCount++] = cell;
+            if ((entry & 1) != 0) {
+                state.destroyed[cell >>> 6] |= 1L << cell;
+            }
+            if (damage != 0) {
+                if (!state.hasDamage) {
+                    int cells = state.rows * state.cols;
+                    state.damage = GameState.grow(state.damage, cells);
+                    Arrays.fill(state.damage, 0, cells, (byte) 0);
+                    state.hasDamage = true;
+                }
+                state.damage[cell] = damage;
+            }
+        }
+        state.liveCount = (int) getVarLong(in);
+        int count = (int) getVarLong(in);
+        state.explosions = GameState.grow(state.explosions, count);
+        for (int i = 0; i < count; i++) {
+            state.explosions[i] = (int) getVarLong(in);
+        }
+        state.explosionCount = count;
+        state.field = null;
+    }
+    
+    private static void putFloatDelta(ByteBuffer out, float base, float next) {
+        putVarLong(out, zigzag(Float.floatToRawIntBits(next) - Float.floatToRawIntBits(base)));
+    }
+    
+    private static float getFloatDelta(ByteBuffer in, float base) {
+        return Float.intBitsToFloat(Float.floatToRawIntBits(base) + (int) unzigzag(getVarLong(in)));
+    }
+    
+    static void putVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+    
+    static long getVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+    
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+    
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,63 @@
+// Modelo de hilos de los bucles de juego: un hilo de plataforma por sesión o un hilo virtual.
+// Los hilos virtuales se crean por reflexión para compilar y ejecutar también en JDK sin ellos
+// (antes de 21); si no están disponibles se usan hilos de plataforma.
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+class GameThreads {
+    
+    enum Mode {
+        PLATFORM,
+        VIRTUAL
+    }
+    
+    // Fábrica de hilos virtuales de la JVM (null si no los tiene)
+    private static final ThreadFactory VIRTUAL_FACTORY = createVirtualFactory();
+    
+    static boolean virtualThreadsSupported() {
+        return VIRTUAL_FACTORY != null;
+    }
+    
+    // "platform" o "virtual"
+    static Mode parseMode(String name) {
+        return Mode.valueOf(name.toUpperCase());
+    }
+    
+    // Fábrica de hilos con nombre prefix-N. Los hilos de plataforma son daemon, como los virtuales.
+    static ThreadFactory factory(Mode mode, String prefix) {
+        AtomicInteger next = new AtomicInteger();
+        if (mode == Mode.VIRTUAL && VIRTUAL_FACTORY != null) {
+            return task -> {
+                Thread thread = VIRTUAL_FACTORY.newThread(task);
+                thread.setName(prefix + "-" + next.getAndIncrement());
+                return thread;
+            };
+        }
+        if (mode == Mode.VIRTUAL) {
+            System.err.println("Virtual threads are not available in Java " + Runtime.version().feature()
+                    + "; using platform threads");
+        }
+        return task -> {
+            Thread thread = new Thread(task, prefix + "-" + next.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+    
+    // Thread.ofVirtual().factory(); falla en JDK sin hilos virtuales o con ellos en vista previa
+    private static ThreadFactory createVirtualFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (NoSuchMethodException | ClassNotFoundException | IllegalAccessException e) {
+            return null;
+        } catch (InvocationTargetException e) {
+            // UnsupportedOperationException si son una vista previa no habilitada
+            return null;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+// Ejecuta partidas sin pantalla a máxima velocidad con un paddle automático y muestra estadísticas
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+
+class HeadlessRunner {
+    
+    // Límite de ticks por partida (10 minutos de juego a 60 Hz)
+    private static final long DEFAULT_MAX_TICKS = 10L * 60 * GameEngine.TICKS_PER_SECOND;
+    
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        
+        int games = 100;
+        long maxTicks = DEFAULT_MAX_TICKS;
+        boolean parallel = false;
+        long seed = System.nanoTime();
+        Path recordPath = null;
+        Path scoresPath = null;
+        Path loadStatePath = null;
+        Path saveStatePath = null;
+        String bot = "tracking";
+        GameMetrics metrics = null;
+        Level level = Level.classic();
+        
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--games":
+                    games = Integer.parseInt(args[++i]);
+                    break;
+                case "--max-ticks":
+                    maxTicks = Long.parseLong(args[++i]);
+                    break;
+                case "--parallel":
+                    parallel = true;
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                case "--level":
+                    level = loadLevel(Paths.get(args[++i]));
+                    break;
+                case "--record":
+                    recordPath = Paths.get(args[++i]);
+                    break;
+                case "--scores":
+                    scoresPath = Paths.get(args[++i]);
+                    break;
+                case "--metrics":
+                    metrics = new GameMetrics();
+                    break;
+                case "--load-state":
+                    loadStatePath = Paths.get(args[++i]);
+                    break;
+                case "--save-state":
+                    saveStatePath = Paths.get(args[++i]);
+                    break;
+                case "--bot":
+                    bot = args[++i];
+                    try {
+                        PaddleController.create(bot);
+                    } catch (IllegalArgumentException e) {
+                        System.err.println(e.getMessage());
+                        System.exit(2);
+                    }
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.err.println("Usage: --headless [--games N] [--max-ticks T] [--parallel] [--seed S] [--level file] [--record file]"
+                            + " [--scores file] [--metrics] [--load-state file] [--save-state file]"
+                            + " [--bot tracking|predictor|search]");
+                    System.exit(2);
+            }
+        }
+        if (loadStatePath != null && recordPath != null) {
+            // Una grabación siempre empieza desde el principio de la partida
+            System.err.println("--record cannot be combined with --load-state");
+            System.exit(2);
+        }
+        GameState loadedState = loadStatePath != null ? loadState(loadStatePath) : null;
+        
+        long[] scores = new long[games];
+        ScoreManager.Stats stats = new ScoreManager.Stats();
+        ScoreManager.Stats totals = new ScoreManager.Stats();
+        long totalTicks = 0;
+        int victories = 0;
+        
+        HighScoreStore highScores = scoresPath != null ? openHighScores(scoresPath) : null;
+        
+        long start = System.nanoTime();
+        for (int game = 0; game < games; game++) {
+            // Cada partida usa su propia semilla: seed, seed + 1, ...
+            GameEngine engine = new GameEngine(seed + game, level);
+            engine.setParallel(parallel);
+            // Los ticks los ejecuta un GameLoop sin hilo propio, que mide igual que con pantalla
+            // (fases, eventos JFR y bytes asignados por segundo)
+            GameLoop loop = new GameLoop(engine, new InputMailbox(), null);
+            loop.setMetrics(metrics);
+            PaddleController controller = PaddleController.create(bot);
+            if (loadedState != null) {
+                engine.restoreState(loadedState);
+            }
+            
+            // Se graba solo la primera partida
+            ReplayRecorder recorder = null;
+            if (game == 0 && recordPath != null) {
+                recorder = createRecorder(recordPath, engine, parallel);
+            }
+            
+            while (!engine.isGameOver() && engine.getTick() < maxTicks) {
+                int paddleX = controller.nextPaddleX(engine);
+                if (paddleX != InputMailbox.NO_INPUT) {
+                    engine.movePaddle(paddleX);
+                }
+                if (recorder != null) {
+                    recordTick(recorder, paddleX);
+                }
+                loop.runTicks(1);
+            }
+            if (recorder != null) {
+                finishRecording(recorder, engine);
+            }
+            if (game == 0 && saveStatePath != null) {
+                saveState(saveStatePath, engine);
+            }
+            
+            scores[game] = engine.getScoreManager().getScore();
+            totals.add(engine.getScoreManager().snapshot(stats));
+            if (highScores != null) {
+                highScores.submit(scores[game], seed + game, engine.getTick(), engine.isVictory());
+            }
+            totalTicks += engine.getTick();
+            if (engine.isVictory()) {
+                victories++;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        
+        printReport(scores, totals, totalTicks, victories, seconds, parallel, seed, bot);
+        if (highScores != null) {
+            printHighScores(highScores);
+        }
+        if (metrics != null) {
+            System.out.println();
+            metrics.printReport(System.out);
+        }
+    }
+    
+    private static HighScoreStore openHighScores(Path path) {
+        try {
+            return new HighScoreStore(path);
+        } catch (IOException e) {
+            System.err.println("Cannot open high scores " + path + ": " + e.getMessage());
+            System.exit(1);
+            return null;
+        }
+    }
+    
+    // Cierra la tabla (escribiendo lo pendiente) y muestra las mejores puntuaciones
+    private static void printHighScores(HighScoreStore highScores) {
+        try {
+            highScores.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot write high scores", e);
+        }
+        System.out.println("High scores:");
+        if (highScores.getDropped() > 0) {
+            System.out.printf("  (%d dropped, the writer fell behind)%n", highScores.getDropped());
+        }
+        int rank = 1;
+        for (HighScoreStore.Entry entry : highScores.getTop()) {
+            System.out.printf("  %2d. %8d  seed %d  %d ticks%s%n", rank++, entry.score, entry.seed, entry.ticks,
+                    entry.victory ? "  victory" : "");
+        }
+    }
+    
+    // Las partidas siguen desde el estado guardado (con su generador, así que todas son iguales)
+    private static GameState loadState(Path path) {
+        try {
+            return GameStateCodec.load(path, new GameState());
+        } catch (IOException e) {
+            System.err.println("Cannot load state " + path + ": " + e.getMessage());
+            System.exit(1);
+            return null;
+        }
+    }
+    
+    private static void saveState(Path path, GameEngine engine) {
+        try {
+            GameStateCodec.save(path, engine.saveState(new GameState()));
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot save state to " + path, e);
+        }
+    }
+    
+    static Level loadLevel(Path path) {
+        try {
+            return LevelFormat.load(path);
+        } catch (IOException e) {
+            System.err.println("Cannot load level " + path + ": " + e.getMessage());
+            System.exit(1);
+            return null;
+        }
+    }
+    
+    private static ReplayRecorder createRecorder(Path path, GameEngine engine, boolean parallel) {
+        try {
+            ReplayRecorder recorder = new ReplayRecorder(path, engine);
+            if (parallel) {
+                // La repetición empieza en serie, como una sesión nueva
+                recorder.recordCommands(InputMailbox.COMMAND_TOGGLE_PARALLEL);
+            }
+            return recorder;
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot record to " + path, e);
+        }
+    }
+    
+    private static void recordTick(ReplayRecorder recorder, int paddleX) {
+        try {
+            recorder.recordTick(paddleX);
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot write recording", e);
+        }
+    }
+    
+    private static void finishRecording(ReplayRecorder recorder, GameEngine engine) {
+        try {
+            recorder.finish(engine);
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot write recording", e);
+        }
+    }
+    
+    // Paddle automático por defecto (TrackingController)
+    static int autoPaddleX(GameEngine engine) {
+        return TrackingController.paddleXFor(engine);
+    }
+    
+    private static void printReport(long[] scores, ScoreManager.Stats totals, long totalTicks, int victories,
+                                    double seconds, boolean parallel, long seed, String bot) {
+        int games = scores.length;
+        long[] sorted = scores.clone();
+        Arrays.sort(sorted);
+        long sum = 0;
+        for (long score : sorted) {
+            sum += score;
+        }
+        
+        System.out.printf("Mode:        %s%n", parallel ? "parallel" : "serial");
+        System.out.printf("Seed:        %d%n", seed);
+        System.out.printf("Bot:         %s%n", bot);
+        System.out.printf("Games:       %d (%d victories)%n", games, victories);
+        System.out.printf("Ticks:       %d (%.0f per game)%n", totalTicks, (double) totalTicks / games);
+        System.out.printf("Elapsed:     %.3f s%n", seconds);
+        System.out.printf("Games/sec:   %.2f%n", games / seconds);
+        System.out.printf("Ticks/sec:   %.0f%n", totalTicks / seconds);
+        if (games > 0) {
+            System.out.printf("Score:       min %d  p25 %d  p50 %d  p75 %d  p95 %d  max %d  mean %.1f%n",
+                    sorted[0], percentile(sorted, 25), percentile(sorted, 50), percentile(sorted, 75),
+                    percentile(sorted, 95), sorted[games - 1], (double) sum / games);
+            
+            // Desglose medio por partida según el origen de los puntos
+            System.out.printf("Points:      bricks %.1f  combo %.1f  explosions %.1f  power-ups %.1f  (max combo %d)%n",
+                    (double) totals.getBrickPoints() / games, (double) totals.comboPoints / games,
+                    (double) totals.explosionPoints / games, (double) totals.powerUpPoints / games, totals.maxCombo);
+            if (totals.rowPoints.length <= 16) {
+                StringBuilder rows = new StringBuilder("Rows:       ");
+                for (long points : totals.rowPoints) {
+                    rows.append(String.format(" %.1f", (double) points / games));
+                }
+                System.out.println(rows);
+            }
+        }
+    }
+    
+    private static long percentile(long[] sorted, int percent) {
+        int index = (int) Math.ceil(percent / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
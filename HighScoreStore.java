@@ -0,0 +1,368 @@
+// Tabla de récords persistente: un registro binario al que solo se añaden entradas y un
+// montículo en memoria con las mejores N. El juego solo encola la puntuación; un hilo aparte
+// la escribe por tandas con un único fsync por tanda y compacta el archivo cuando crece.
+//
+// Formato (big-endian):
+//   cabecera: int MAGIC, short VERSION
+//   registros de RECORD_SIZE bytes: long puntos, long semilla, long ticks, long fecha (ms),
+//             int flags (bit 0: victoria), int CRC32C de los 36 bytes anteriores
+//
+// Un registro incompleto o corrupto al final (corte durante la escritura) se descarta al abrir.
+// La compactación escribe las mejores N en un archivo temporal y lo renombra atómicamente,
+// así que tras un corte queda el registro viejo o el nuevo, nunca uno a medias; el fsync del
+// directorio después del renombrado hace que el nuevo sea el que sobrevive.
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32C;
+
+
+class HighScoreStore implements Closeable {
+    
+    static final int MAGIC = 0x42424853; // "BBHS"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 6;
+    static final int RECORD_SIZE = 40;
+    
+    public static final int DEFAULT_TOP = 10;
+    
+    // Registros en el archivo a partir de los cuales se compacta (se quedan solo las mejores N)
+    private static final int COMPACT_RECORDS = 4096;
+    
+    // Intervalo entre tandas de escritura y máximo de puntuaciones encoladas
+    private static final long FLUSH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int MAX_PENDING = 4096;
+    
+    // Orden del montículo: la peor primero; a igual puntuación pierde la más reciente
+    private static final Comparator<Entry> WORST_FIRST =
+            Comparator.comparingLong((Entry e) -> e.score).thenComparingLong(e -> -e.timeMillis);
+    
+    private final Path path;
+    private final int topSize;
+    private FileChannel channel;
+    private long recordCount;
+    
+    // Mejores N (montículo de mínimos); la escribe el hilo escritor y se lee bajo su monitor
+    private final PriorityQueue<Entry> top;
+    private volatile long best;
+    
+    // Puntuaciones pendientes de escribir
+    private final ConcurrentLinkedQueue<Entry> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    
+    private final Thread writer;
+    private volatile boolean closed;
+    private IOException writeError;
+    
+    // Solo los usa el hilo escritor
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_SIZE * 256);
+    private final CRC32C crc = new CRC32C();
+    
+    public HighScoreStore(Path path) throws IOException {
+        this(path, DEFAULT_TOP);
+    }
+    
+    public HighScoreStore(Path path, int topSize) throws IOException {
+        this.path = path;
+        this.topSize = topSize;
+        this.top = new PriorityQueue<>(topSize + 1, WORST_FIRST);
+        
+        // Directorio del archivo (el de por defecto no existe en la primera partida) y restos de
+        // una compactación interrumpida
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Files.deleteIfExists(tempPath());
+        
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        load();
+        if (recordCount >= COMPACT_RECORDS) {
+            compact();
+        }
+        
+        writer = new Thread(this::writeLoop, "HighScoreWriter");
+        writer.setDaemon(true);
+        writer.start();
+    }
+    
+    // Encola una puntuación sin bloquear; devuelve false si la cola está llena y se descartó
+    public boolean submit(long score, long seed, long ticks, boolean victory) {
+        if (closed) {
+            return false;
+        }
+        int queued = pendingCount.incrementAndGet();
+        if (queued > MAX_PENDING) {
+            pendingCount.decrementAndGet();
+            dropped.incrementAndGet();
+            return false;
+        }
+        pending.offer(new Entry(score, seed, ticks, System.currentTimeMillis(), victory));
+        if (queued == MAX_PENDING / 2) {
+            // Cola a medio llenar: no esperar al siguiente intervalo
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+    
+    // Mejor puntuación guardada (incluye las ya escritas, no las que siguen en cola)
+    public long getBest() {
+        return best;
+    }
+    
+    // Mejores N de mayor a menor
+    public List<Entry> getTop() {
+        List<Entry> entries;
+        synchronized (top) {
+            entries = new ArrayList<>(top);
+        }
+        entries.sort(WORST_FIRST.reversed());
+        return entries;
+    }
+    
+    public long getDropped() {
+        return dropped.get();
+    }
+    
+    // Escribe lo pendiente, detiene el hilo escritor y cierra el archivo
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writeError != null) {
+            throw writeError;
+        }
+    }
+    
+    // Lee el registro existente por bloques, descarta la cola dañada y reconstruye las mejores N.
+    // Sin mapear el archivo, porque algunos sistemas no permiten truncar un archivo mapeado.
+    private void load() throws IOException {
+        long size = channel.size();
+        if (size < HEADER_SIZE) {
+            writeHeader(channel);
+            return;
+        }
+        ByteBuffer in = ByteBuffer.allocate(RECORD_SIZE * 4096);
+        in.limit(HEADER_SIZE);
+        channel.read(in, 0);
+        in.flip();
+        if (in.remaining() < HEADER_SIZE || in.getInt() != MAGIC) {
+            throw new IOException("Not a high-score file: " + path);
+        }
+        if (in.getShort() != VERSION) {
+            throw new IOException("Unsupported high-score version: " + path);
+        }
+        
+        long valid = HEADER_SIZE;
+        boolean damaged = false;
+        while (!damaged) {
+            in.clear();
+            int read = channel.read(in, valid);
+            if (read < RECORD_SIZE) {
+                break;
+            }
+            in.flip();
+            while (in.remaining() >= RECORD_SIZE) {
+                Entry entry = readRecord(in);
+                if (entry == null) {
+                    damaged = true;
+                    break;
+                }
+                offer(entry);
+                recordCount++;
+                valid += RECORD_SIZE;
+            }
+        }
+        if (valid < size) {
+            channel.truncate(valid);
+        }
+        channel.position(valid);
+    }
+    
+    private Entry readRecord(ByteBuffer in) {
+        int start = in.position();
+        long score = in.getLong();
+        long seed = in.getLong();
+        long ticks = in.getLong();
+        long timeMillis = in.getLong();
+        int flags = in.getInt();
+        int stored = in.getInt();
+        
+        crc.reset();
+        crc.update(in.duplicate().position(start).limit(start + RECORD_SIZE - 4));
+        if ((int) crc.getValue() != stored) {
+            return null;
+        }
+        return new Entry(score, seed, ticks, timeMillis, (flags & 1) != 0);
+    }
+    
+    private void writeRecord(ByteBuffer out, Entry entry) {
+        int start = out.position();
+        out.putLong(entry.score);
+        out.putLong(entry.seed);
+        out.putLong(entry.ticks);
+        out.putLong(entry.timeMillis);
+        out.putInt(entry.victory ? 1 : 0);
+        
+        crc.reset();
+        crc.update(out.duplicate().position(start).limit(start + RECORD_SIZE - 4));
+        out.putInt((int) crc.getValue());
+    }
+    
+    private static void writeHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putShort(VERSION).flip();
+        channel.write(header, 0);
+        channel.position(HEADER_SIZE);
+    }
+    
+    // Hilo escritor: cada intervalo vacía la cola en una tanda con un solo fsync
+    private void writeLoop() {
+        try {
+            while (!closed) {
+                LockSupport.parkNanos(this, FLUSH_INTERVAL_NANOS);
+                writeBatch();
+                if (recordCount >= COMPACT_RECORDS) {
+                    compact();
+                }
+            }
+            writeBatch();
+        } catch (IOException e) {
+            writeError = e;
+            e.printStackTrace();
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+    
+    private void writeBatch() throws IOException {
+        boolean wrote = false;
+        Entry entry;
+        while ((entry = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            if (buffer.remaining() < RECORD_SIZE) {
+                flushBuffer();
+            }
+            writeRecord(buffer, entry);
+            offer(entry);
+            recordCount++;
+            wrote = true;
+        }
+        if (wrote) {
+            flushBuffer();
+            channel.force(false);
+        }
+    }
+    
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+    
+    // Reescribe el archivo con solo las mejores N y lo sustituye por renombrado atómico
+    private void compact() throws IOException {
+        Path temp = tempPath();
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeHeader(out);
+            List<Entry> entries = getTop();
+            ByteBuffer records = ByteBuffer.allocate(RECORD_SIZE * Math.max(entries.size(), 1));
+            for (Entry entry : entries) {
+                writeRecord(records, entry);
+            }
+            recordCount = entries.size();
+            records.flip();
+            while (records.hasRemaining()) {
+                out.write(records);
+            }
+            out.force(true);
+        }
+        channel.close();
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory();
+        
+        channel = FileChannel.open(path, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+    }
+    
+    // El renombrado es una entrada del directorio: sin su fsync un corte puede dejar el registro
+    // viejo aunque el nuevo ya esté en disco
+    private void syncDirectory() throws IOException {
+        FileChannel directory;
+        try {
+            directory = FileChannel.open(path.toAbsolutePath().getParent(), StandardOpenOption.READ);
+        } catch (IOException e) {
+            // Windows no permite abrir un directorio; allí el renombrado ya se escribe en el disco
+            return;
+        }
+        try (directory) {
+            directory.force(true);
+        }
+    }
+    
+    private Path tempPath() {
+        return path.resolveSibling(path.getFileName() + ".tmp");
+    }
+    
+    // Añade la entrada a las mejores N si entra
+    private void offer(Entry entry) {
+        synchronized (top) {
+            if (top.size() < topSize) {
+                top.add(entry);
+            } else if (topSize > 0 && WORST_FIRST.compare(entry, top.peek()) > 0) {
+                top.poll();
+                top.add(entry);
+            } else {
+                return;
+            }
+        }
+        if (entry.score > best) {
+            best = entry.score;
+        }
+    }
+    
+    static class Entry {
+        final long score;
+        final long seed;
+        final long ticks;
+        final long timeMillis;
+        final boolean victory;
+        
+        Entry(long score, long seed, long ticks, long timeMillis, boolean victory) {
+            this.score = score;
+            this.seed = seed;
+            this.ticks = ticks;
+            this.timeMillis = timeMillis;
+            this.victory = victory;
+        }
+    }
+}
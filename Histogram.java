@@ -0,0 +1,103 @@
+// Histograma de tiempos sin bloqueos, al estilo HDR: cubetas log-lineales (32 por potencia de dos,
+// ~3% de error relativo) en un arreglo atómico fijo, así que registrar no asigna ni bloquea
+// y puede hacerse desde varios hilos a la vez.
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+class Histogram {
+    
+    // Subcubetas por potencia de dos (2^SUB_BITS)
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    
+    // Cubetas para cubrir todos los long positivos
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_COUNT;
+    
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+    
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(indexOf(value));
+        count.incrementAndGet();
+        total.addAndGet(value);
+        
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+    
+    // Valor aproximado (punto medio de su cubeta) por debajo del cual queda el percentil (0-100)
+    public long percentile(double percent) {
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percent / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(valueOf(i) + (widthOf(i) - 1) / 2, max.get());
+            }
+        }
+        return max.get();
+    }
+    
+    public long getCount() {
+        return count.get();
+    }
+    
+    public long getTotal() {
+        return total.get();
+    }
+    
+    public long getMax() {
+        return max.get();
+    }
+    
+    public double getMean() {
+        long n = count.get();
+        return n == 0 ? 0 : (double) total.get() / n;
+    }
+    
+    // Vacía el histograma; lo registrado a la vez puede perderse o quedar a medias
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        total.set(0);
+        max.set(0);
+    }
+    
+    // Los valores menores que 2 * SUB_COUNT tienen cubeta propia; a partir de ahí cada
+    // potencia de dos se divide en SUB_COUNT cubetas iguales
+    static int indexOf(long value) {
+        if (value < 2 * SUB_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return (shift << SUB_BITS) + (int) (value >>> shift);
+    }
+    
+    // Menor valor de la cubeta
+    static long valueOf(int index) {
+        if (index < 2 * SUB_COUNT) {
+            return index;
+        }
+        int shift = (index >>> SUB_BITS) - 1;
+        return (long) (index - (shift << SUB_BITS)) << shift;
+    }
+    
+    private static long widthOf(int index) {
+        return index < 2 * SUB_COUNT ? 1 : 1L << ((index >>> SUB_BITS) - 1);
+    }
+}
@@ -0,0 +1,119 @@
+// Línea de texto del HUD escrita en un búfer de caracteres reutilizable: se reconstruye solo
+// cuando cambian sus valores y se dibuja con drawChars, sin crear cadenas en cada cuadro
+
+import java.awt.Graphics2D;
+import java.util.Arrays;
+
+
+class HudText {
+    
+    private final String label;
+    private char[] chars = new char[64];
+    private int length;
+    
+    // Último valor escrito con setValue
+    private long value;
+    private boolean hasValue;
+    
+    // Línea libre, construida con clear y append
+    public HudText() {
+        this(null);
+    }
+    
+    // Línea con etiqueta y un valor numérico (por ejemplo "Score: ")
+    public HudText(String label) {
+        this.label = label;
+    }
+    
+    // Escribe etiqueta + valor, solo si el valor cambió
+    public HudText setValue(long value) {
+        if (!hasValue || value != this.value) {
+            this.value = value;
+            hasValue = true;
+            clear().append(label).append(value);
+        }
+        return this;
+    }
+    
+    public HudText clear() {
+        length = 0;
+        return this;
+    }
+    
+    public HudText append(String text) {
+        int n = text.length();
+        ensureCapacity(length + n);
+        text.getChars(0, n, chars, length);
+        length += n;
+        return this;
+    }
+    
+    public HudText append(long number) {
+        // 20 caracteres bastan para cualquier long con signo
+        ensureCapacity(length + 20);
+        if (number < 0) {
+            chars[length++] = '-';
+            if (number == Long.MIN_VALUE) {
+                return append("9223372036854775808");
+            }
+            number = -number;
+        }
+        int start = length;
+        do {
+            chars[length++] = (char) ('0' + number % 10);
+            number /= 10;
+        } while (number > 0);
+        
+        // Los dígitos salen al revés
+        for (int i = start, j = length - 1; i < j; i++, j--) {
+            char c = chars[i];
+            chars[i] = chars[j];
+            chars[j] = c;
+        }
+        return this;
+    }
+    
+    // Nanosegundos como milisegundos con el número de decimales indicado (0-6)
+    public HudText appendMillis(long nanos, int decimals) {
+        long scale = 1;
+        for (int i = 0; i < decimals; i++) {
+            scale *= 10;
+        }
+        long scaled = Math.round(nanos / (1_000_000.0 / scale));
+        if (scaled < 0) {
+            ensureCapacity(length + 1);
+            chars[length++] = '-';
+            scaled = -scaled;
+        }
+        append(scaled / scale);
+        if (decimals > 0) {
+            ensureCapacity(length + 1 + decimals);
+            chars[length++] = '.';
+            long fraction = scaled % scale;
+            for (long digit = scale / 10; digit > 0; digit /= 10) {
+                chars[length++] = (char) ('0' + fraction / digit % 10);
+            }
+        }
+        return this;
+    }
+    
+    public void draw(Graphics2D g, int x, int y) {
+        g.drawChars(chars, 0, length, x, y);
+    }
+    
+    // Dibuja la línea centrada horizontalmente en x
+    public void drawCentered(Graphics2D g, int x, int y) {
+        int width = g.getFontMetrics().charsWidth(chars, 0, length);
+        g.drawChars(chars, 0, length, x - width / 2, y);
+    }
+    
+    public int length() {
+        return length;
+    }
+    
+    private void ensureCapacity(int capacity) {
+        if (capacity > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(capacity, chars.length * 2));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+// Buzón sin bloqueos para la entrada: guarda solo la última posición del mouse y los comandos pendientes
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+
+class InputMailbox {
+    
+    // Valor que indica que no hay posición nueva
+    public static final int NO_INPUT = Integer.MIN_VALUE;
+    
+    // Comandos (bits) que se aplican al inicio de la siguiente iteración del bucle
+    public static final int COMMAND_RESTART = 1;
+    public static final int COMMAND_TOGGLE_PARALLEL = 2;
+    
+    private final AtomicInteger paddleX = new AtomicInteger(NO_INPUT);
+    private final AtomicInteger commands = new AtomicInteger();
+    
+    // Eventos recibidos y leídos, para medir cuántos se combinan en un mismo tick
+    private final LongAdder posted = new LongAdder();
+    private volatile long taken;
+    
+    // Llamado desde el hilo de eventos: sobrescribe la posición anterior si aún no se leyó
+    public void postPaddleX(int x) {
+        paddleX.set(x);
+        posted.increment();
+    }
+    
+    // Llamado una vez por tick desde el hilo de simulación
+    public int takePaddleX() {
+        int x = paddleX.getAndSet(NO_INPUT);
+        if (x != NO_INPUT) {
+            taken++;
+        }
+        return x;
+    }
+    
+    public void postCommand(int command) {
+        int current;
+        do {
+            current = commands.get();
+        } while (!commands.compareAndSet(current, current | command));
+    }
+    
+    public int takeCommands() {
+        return commands.getAndSet(0);
+    }
+    
+    public boolean hasCommands() {
+        return commands.get() != 0;
+    }
+    
+    // Eventos de mouse que se descartaron porque llegó otro antes del siguiente tick
+    public long getCoalescedInputs() {
+        return posted.sum() - taken;
+    }
+}
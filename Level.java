@@ -0,0 +1,161 @@
+// Definición de un nivel: una paleta de tipos de ladrillo y un byte por celda (0 = vacía).
+// Las celdas pueden estar en un archivo binario mapeado en memoria: solo se leen las que se usan,
+// así que un nivel enorme se abre al instante y no se crea ningún objeto por ladrillo.
+
+import java.awt.Color;
+import java.nio.ByteBuffer;
+
+
+class Level {
+    
+    // Comportamiento del ladrillo al ser golpeado
+    public enum BrickType {
+        NORMAL,          // Se destruye al agotar sus golpes
+        INDESTRUCTIBLE,  // Solo hace rebotar la bola; no cuenta para la victoria
+        EXPLOSIVE        // Destruye también a sus vecinos
+    }
+    
+    // Entrada de la paleta: tipo, golpes que aguanta, color y puntos
+    public static final class BrickKind {
+        final BrickType type;
+        final int hits;
+        final Color color;
+        final int points;
+        
+        // Color según los golpes que le quedan (shades[hits] es el color original)
+        private final Color[] shades;
+        
+        BrickKind(BrickType type, int hits, Color color, int points) {
+            if (hits < 1 || hits > 255) {
+                throw new IllegalArgumentException("Brick hits must be between 1 and 255: " + hits);
+            }
+            this.type = type;
+            this.hits = hits;
+            this.color = color;
+            this.points = points;
+            
+            // Más oscuro cuantos menos golpes le quedan
+            shades = new Color[hits + 1];
+            for (int remaining = 1; remaining < hits; remaining++) {
+                float factor = 0.4f + 0.6f * remaining / hits;
+                shades[remaining] = new Color((int) (color.getRed() * factor), (int) (color.getGreen() * factor),
+                        (int) (color.getBlue() * factor));
+            }
+            shades[hits] = color;
+        }
+        
+        public Color shade(int remainingHits) {
+            return shades[Math.max(1, Math.min(remainingHits, hits))];
+        }
+        
+        public BrickType getType() {
+            return type;
+        }
+        
+        public int getHits() {
+            return hits;
+        }
+        
+        public Color getColor() {
+            return color;
+        }
+        
+        public int getPoints() {
+            return points;
+        }
+    }
+    
+    // Nivel clásico: colores y puntos por fila
+    private static final Color[] CLASSIC_COLORS = {
+        Color.RED, Color.ORANGE, Color.YELLOW, Color.GREEN, Color.BLUE, Color.MAGENTA, Color.PINK, Color.CYAN
+    };
+    private static final int[] CLASSIC_POINTS = {7, 7, 5, 5, 3, 3, 1, 1};
+    
+    private final int rows;
+    private final int cols;
+    
+    // palette[0] es la celda vacía. Tiene siempre 256 entradas: un índice fuera de la paleta
+    // de un archivo dañado se lee como celda vacía en lugar de fallar a mitad de partida.
+    private final BrickKind[] palette = new BrickKind[256];
+    private final int paletteSize;
+    
+    // rows * cols índices de la paleta; solo se lee con get(int), así que admite lectores concurrentes
+    private final ByteBuffer cells;
+    
+    // Ladrillos que hay que destruir para ganar (sin contar los indestructibles)
+    private final int brickCount;
+    
+    // Archivo del que se cargó, o null si se generó en memoria
+    private final String source;
+    
+    Level(int rows, int cols, BrickKind[] palette, ByteBuffer cells, int brickCount, String source) {
+        if ((long) rows * cols > cells.capacity()) {
+            throw new IllegalArgumentException("Level data is shorter than " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        if (palette.length > this.palette.length) {
+            throw new IllegalArgumentException("Too many brick kinds: " + (palette.length - 1));
+        }
+        System.arraycopy(palette, 1, this.palette, 1, palette.length - 1);
+        this.paletteSize = palette.length - 1;
+        this.cells = cells;
+        this.brickCount = brickCount;
+        this.source = source;
+    }
+    
+    // Nivel por defecto: 8x8 con el patrón clásico
+    public static Level classic() {
+        return classic(8, 8);
+    }
+    
+    // Rejilla llena con el patrón de colores y puntos por filas del juego original
+    public static Level classic(int rows, int cols) {
+        BrickKind[] palette = new BrickKind[CLASSIC_COLORS.length + 1];
+        for (int i = 0; i < CLASSIC_COLORS.length; i++) {
+            palette[i + 1] = new BrickKind(BrickType.NORMAL, 1, CLASSIC_COLORS[i], CLASSIC_POINTS[i]);
+        }
+        
+        ByteBuffer cells = ByteBuffer.allocate(rows * cols);
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                cells.put(i * cols + j, (byte) (i % CLASSIC_COLORS.length + 1));
+            }
+        }
+        return new Level(rows, cols, palette, cells, rows * cols, null);
+    }
+    
+    // Índice de paleta de la celda (0 si está vacía)
+    public int kindIndexAt(int cell) {
+        return palette[cells.get(cell) & 0xFF] != null ? cells.get(cell) & 0xFF : 0;
+    }
+    
+    // Tipo de la celda, o null si está vacía
+    public BrickKind kindAt(int cell) {
+        return palette[cells.get(cell) & 0xFF];
+    }
+    
+    public BrickKind getKind(int index) {
+        return palette[index];
+    }
+    
+    public int getPaletteSize() {
+        return paletteSize;
+    }
+    
+    public int getRows() {
+        return rows;
+    }
+    
+    public int getCols() {
+        return cols;
+    }
+    
+    public int getBrickCount() {
+        return brickCount;
+    }
+    
+    public String getSource() {
+        return source;
+    }
+}
@@ -0,0 +1,293 @@
+// Lectura y escritura de niveles en dos formatos:
+//
+// Texto (para escribirlos a mano), una directiva por línea y "#" para comentarios:
+//   brick R normal 1 FF0000 7      símbolo, tipo (normal/indestructible/explosive), golpes, color RRGGBB, puntos
+//   grid                           a partir de aquí, una fila de la rejilla por línea
+//   RRRR..RRRR                     un símbolo por celda; "." o espacio es una celda vacía
+//
+// Binario (para campos grandes), big-endian:
+//   int MAGIC, short VERSION, int filas, int columnas, int ladrillos a destruir, ubyte tamaño de la paleta,
+//   por entrada: byte tipo, byte golpes, int color RGB, int puntos; después filas * columnas bytes,
+//   cada uno el índice de paleta de la celda (0 = vacía). Las celdas se mapean en memoria; al abrir
+//   solo se recorren una vez para comprobar el número de ladrillos de la cabecera.
+
+import java.awt.Color;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+
+class LevelFormat {
+    
+    static final int MAGIC = 0x42424C56; // "BBLV"
+    static final short VERSION = 1;
+    
+    // Carga un nivel binario o de texto según su cabecera
+    public static Level load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            channel.read(magic, 0);
+            if (magic.position() == 4 && magic.getInt(0) == MAGIC) {
+                return loadBinary(path, channel);
+            }
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return loadText(reader, path.toString());
+        }
+    }
+    
+    // Lee la cabecera y la paleta, y mapea las celdas (se leen del disco cuando se usan)
+    private static Level loadBinary(Path path, FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(4 + 2 + 4 + 4 + 4 + 1);
+        readFully(channel, header, 0);
+        header.flip();
+        header.getInt();
+        short version = header.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported level version " + version + " in " + path);
+        }
+        int rows = header.getInt();
+        int cols = header.getInt();
+        int brickCount = header.getInt();
+        int paletteSize = header.get() & 0xFF;
+        if (rows <= 0 || cols <= 0 || (long) rows * cols > Integer.MAX_VALUE) {
+            throw new IOException("Invalid level size " + rows + "x" + cols + " in " + path);
+        }
+        
+        ByteBuffer entries = ByteBuffer.allocate(paletteSize * 10);
+        readFully(channel, entries, header.capacity());
+        entries.flip();
+        Level.BrickKind[] palette = new Level.BrickKind[paletteSize + 1];
+        for (int i = 1; i <= paletteSize; i++) {
+            int type = entries.get();
+            if (type < 0 || type >= Level.BrickType.values().length) {
+                throw new IOException("Invalid brick type " + type + " in " + path);
+            }
+            palette[i] = new Level.BrickKind(Level.BrickType.values()[type], entries.get() & 0xFF,
+                    new Color(entries.getInt()), entries.getInt());
+        }
+        
+        long dataOffset = header.capacity() + entries.capacity();
+        long cellCount = (long) rows * cols;
+        if (channel.size() < dataOffset + cellCount) {
+            throw new IOException("Truncated level " + path);
+        }
+        // El mapeo sigue siendo válido después de cerrar el canal
+        ByteBuffer cells = channel.map(FileChannel.MapMode.READ_ONLY, dataOffset, cellCount);
+        
+        // La cabecera decide cuándo se gana: un número que no cuadra con las celdas dejaría la
+        // partida sin victoria posible o la daría por ganada antes de tiempo
+        int counted = countBricks(cells, palette);
+        if (counted != brickCount) {
+            throw new IOException("Brick count " + brickCount + " does not match the " + counted + " bricks in " + path);
+        }
+        return new Level(rows, cols, palette, cells, brickCount, path.toString());
+    }
+    
+    // Ladrillos que cuentan para la victoria (los no indestructibles), en una pasada secuencial por
+    // bloques; los índices fuera de la paleta son celdas vacías, como en Level.kindAt
+    private static int countBricks(ByteBuffer cells, Level.BrickKind[] palette) {
+        // 1 si el índice cuenta; sumar sin saltos es más rápido con celdas mezcladas
+        int[] counts = new int[256];
+        for (int i = 1; i < palette.length; i++) {
+            counts[i] = palette[i].type != Level.BrickType.INDESTRUCTIBLE ? 1 : 0;
+        }
+        ByteBuffer in = cells.duplicate();
+        byte[] block = new byte[64 * 1024];
+        int count = 0;
+        while (in.hasRemaining()) {
+            int length = Math.min(block.length, in.remaining());
+            in.get(block, 0, length);
+            for (int i = 0; i < length; i++) {
+                count += counts[block[i] & 0xFF];
+            }
+        }
+        return count;
+    }
+    
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of level file");
+            }
+        }
+    }
+    
+    // Lee un nivel de texto línea a línea
+    static Level loadText(BufferedReader reader, String source) throws IOException {
+        // Índice de paleta de cada símbolo (0 = vacío)
+        int[] symbols = new int[128];
+        ArrayList<Level.BrickKind> palette = new ArrayList<>();
+        palette.add(null);
+        
+        int cols = 0;
+        int brickCount = 0;
+        boolean inGrid = false;
+        
+        // Filas con su longitud real; se rellenan con celdas vacías al final
+        ArrayList<byte[]> gridRows = new ArrayList<>();
+        
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (!inGrid) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = trimmed.split("\\s+");
+                if (parts[0].equals("grid")) {
+                    inGrid = true;
+                } else if (parts[0].equals("brick") && parts.length == 6 && parts[1].length() == 1) {
+                    char symbol = parts[1].charAt(0);
+                    if (symbol >= symbols.length || symbol == '.' || symbols[symbol] != 0) {
+                        throw new IOException(source + ":" + lineNumber + ": invalid or repeated symbol '" + symbol + "'");
+                    }
+                    try {
+                        Level.BrickType type = Level.BrickType.valueOf(parts[2].toUpperCase());
+                        palette.add(new Level.BrickKind(type, Integer.parseInt(parts[3]),
+                                new Color(Integer.parseInt(parts[4], 16)), Integer.parseInt(parts[5])));
+                    } catch (IllegalArgumentException e) {
+                        throw new IOException(source + ":" + lineNumber + ": " + e.getMessage());
+                    }
+                    symbols[symbol] = palette.size() - 1;
+                } else {
+                    throw new IOException(source + ":" + lineNumber + ": expected 'brick S type hits RRGGBB points' or 'grid'");
+                }
+                continue;
+            }
+            
+            byte[] row = new byte[line.length()];
+            for (int j = 0; j < line.length(); j++) {
+                char symbol = line.charAt(j);
+                if (symbol == '.' || symbol == ' ') {
+                    continue;
+                }
+                int index = symbol < symbols.length ? symbols[symbol] : 0;
+                if (index == 0) {
+                    throw new IOException(source + ":" + lineNumber + ": unknown brick symbol '" + symbol + "'");
+                }
+                row[j] = (byte) index;
+                if (palette.get(index).type != Level.BrickType.INDESTRUCTIBLE) {
+                    brickCount++;
+                }
+            }
+            gridRows.add(row);
+            cols = Math.max(cols, row.length);
+        }
+        
+        int rows = gridRows.size();
+        if (rows == 0 || cols == 0) {
+            throw new IOException(source + ": level has no grid");
+        }
+        byte[] cells = new byte[rows * cols];
+        for (int i = 0; i < rows; i++) {
+            byte[] row = gridRows.get(i);
+            System.arraycopy(row, 0, cells, i * cols, row.length);
+        }
+        return new Level(rows, cols, palette.toArray(new Level.BrickKind[0]), ByteBuffer.wrap(cells), brickCount, source);
+    }
+    
+    // Escribe el nivel en formato binario
+    public static void writeBinary(Level level, Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            writeHeader(out, level.getRows(), level.getCols(), level.getBrickCount(), paletteOf(level));
+            int cellCount = level.getRows() * level.getCols();
+            for (int cell = 0; cell < cellCount; cell++) {
+                out.writeByte(level.kindIndexAt(cell));
+            }
+        }
+    }
+    
+    // Genera un nivel de prueba grande directamente en disco, fila a fila y sin tenerlo en memoria:
+    // el patrón clásico por filas con algunos huecos, indestructibles y explosivos dispersos
+    public static void writeStressLevel(Path path, int rows, int cols, long seed) throws IOException {
+        Level.BrickKind[] palette = Arrays.copyOf(paletteOf(Level.classic(8, 1)), 11);
+        palette[9] = new Level.BrickKind(Level.BrickType.INDESTRUCTIBLE, 1, Color.GRAY, 0);
+        palette[10] = new Level.BrickKind(Level.BrickType.EXPLOSIVE, 1, Color.WHITE, 10);
+        
+        GameRandom random = new GameRandom(seed);
+        byte[] row = new byte[cols];
+        
+        // La cabecera lleva el número de ladrillos, que se conoce al terminar: se reescribe al final
+        int brickCount = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            writeHeader(out, rows, cols, 0, palette);
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < cols; j++) {
+                    int roll = random.nextInt(100);
+                    if (roll < 10) {
+                        row[j] = 0;
+                    } else if (roll < 12) {
+                        row[j] = 9;
+                    } else if (roll < 13) {
+                        row[j] = 10;
+                        brickCount++;
+                    } else {
+                        row[j] = (byte) (i % 8 + 1);
+                        brickCount++;
+                    }
+                }
+                out.write(row);
+            }
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            ByteBuffer count = ByteBuffer.allocate(4).putInt(0, brickCount);
+            channel.write(count, 4 + 2 + 4 + 4);
+        }
+    }
+    
+    private static void writeHeader(DataOutputStream out, int rows, int cols, int brickCount,
+                                    Level.BrickKind[] palette) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeInt(rows);
+        out.writeInt(cols);
+        out.writeInt(brickCount);
+        out.writeByte(palette.length - 1);
+        for (int i = 1; i < palette.length; i++) {
+            out.writeByte(palette[i].type.ordinal());
+            out.writeByte(palette[i].hits);
+            out.writeInt(palette[i].color.getRGB() & 0xFFFFFF);
+            out.writeInt(palette[i].points);
+        }
+    }
+    
+    private static Level.BrickKind[] paletteOf(Level level) {
+        Level.BrickKind[] palette = new Level.BrickKind[level.getPaletteSize() + 1];
+        for (int i = 1; i < palette.length; i++) {
+            palette[i] = level.getKind(i);
+        }
+        return palette;
+    }
+    
+    // Herramienta de línea de comandos: convertir texto a binario o generar un nivel de prueba
+    public static void main(String[] args) throws IOException {
+        if (args.length == 3 && args[0].equals("--convert")) {
+            Level level = load(Paths.get(args[1]));
+            writeBinary(level, Paths.get(args[2]));
+            System.out.printf("%s: %dx%d, %d bricks%n", args[2], level.getRows(), level.getCols(), level.getBrickCount());
+        } else if ((args.length == 4 || args.length == 5) && args[0].equals("--generate")) {
+            int rows = Integer.parseInt(args[1]);
+            int cols = Integer.parseInt(args[2]);
+            long seed = args.length == 5 ? Long.parseLong(args[4]) : 1;
+            writeStressLevel(Paths.get(args[3]), rows, cols, seed);
+            System.out.printf("%s: %dx%d%n", args[3], rows, cols);
+        } else {
+            System.err.println("Usage: java LevelFormat --convert level.txt level.bin");
+            System.err.println("       java LevelFormat --generate rows cols level.bin [seed]");
+            System.exit(2);
+        }
+    }
+}
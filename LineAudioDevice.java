@@ -0,0 +1,36 @@
+// Salida a la tarjeta de sonido con una SourceDataLine de javax.sound.sampled
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+
+
+class LineAudioDevice implements AudioDevice {
+    
+    private final SourceDataLine line;
+    
+    public LineAudioDevice(AudioFormat format, int bufferBytes) throws LineUnavailableException {
+        line = AudioSystem.getSourceDataLine(format);
+        line.open(format, bufferBytes);
+        line.start();
+    }
+    
+    // Bloquea mientras el búfer de la línea esté lleno
+    @Override
+    public void write(byte[] data, int length) {
+        line.write(data, 0, length);
+    }
+    
+    @Override
+    public void close() {
+        line.stop();
+        line.flush();
+        line.close();
+    }
+    
+    @Override
+    public String getName() {
+        return "line " + line.getFormat();
+    }
+}
@@ -0,0 +1,277 @@
+// Cliente de carga para GameServer: abre N conexiones desde un solo hilo con un Selector,
+// juega en cada una con un paddle automático (responde a cada STATE con un INPUT) y mide
+// cuadros, ancho de banda y latencia entrada -> estado por sesión.
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+
+class LoadClient {
+    
+    private final Selector selector;
+    private final List<Connection> connections = new ArrayList<>();
+    private int clients;
+    
+    // Latencia desde que se envía un INPUT hasta que llega el STATE que lo incluye
+    private final Histogram latency = new Histogram();
+    private long bytesIn;
+    private long bytesOut;
+    private long frames;
+    private long restarts;
+    
+    public LoadClient() throws IOException {
+        selector = Selector.open();
+    }
+    
+    public static void main(String[] args) throws IOException {
+        String host = "localhost";
+        int port = GameServer.DEFAULT_PORT;
+        int clients = 100;
+        int seconds = 10;
+        
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--host":
+                    host = args[++i];
+                    break;
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "--clients":
+                    clients = Integer.parseInt(args[++i]);
+                    break;
+                case "--seconds":
+                    seconds = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.err.println("Usage: java LoadClient [--host H] [--port P] [--clients N] [--seconds S]");
+                    System.exit(2);
+            }
+        }
+        
+        LoadClient client = new LoadClient();
+        for (int i = 0; i < clients; i++) {
+            client.connect(new InetSocketAddress(host, port), i);
+        }
+        client.run(seconds * 1_000_000_000L);
+        client.printReport(seconds);
+    }
+    
+    private void connect(InetSocketAddress address, long seed) throws IOException {
+        SocketChannel channel = SocketChannel.open(address);
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        Connection connection = new Connection(channel);
+        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        connections.add(connection);
+        clients++;
+        
+        ServerProtocol.writeJoin(connection.out, seed);
+        connection.flush();
+    }
+    
+    private void run(long nanos) throws IOException {
+        long end = System.nanoTime() + nanos;
+        while (System.nanoTime() < end && !connections.isEmpty()) {
+            selector.select(100);
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                Connection connection = (Connection) key.attachment();
+                try {
+                    if (key.isValid() && key.isReadable()) {
+                        connection.read();
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        connection.flush();
+                    }
+                } catch (IOException e) {
+                    System.err.println("Connection closed: " + e.getMessage());
+                    connection.close();
+                }
+            }
+        }
+        for (Connection connection : new ArrayList<>(connections)) {
+            connection.close();
+        }
+    }
+    
+    private void printReport(int seconds) {
+        int sessions = Math.max(clients, 1);
+        System.out.printf("Clients:     %d%n", clients);
+        System.out.printf("Frames:      %.1f per second per session%n", (double) frames / seconds / sessions);
+        System.out.printf("Bandwidth:   in %.2f KB/s  out %.2f KB/s per session (%.0f bytes per frame)%n",
+                bytesIn / 1024.0 / seconds / sessions, bytesOut / 1024.0 / seconds / sessions,
+                frames == 0 ? 0 : (double) bytesIn / frames);
+        System.out.printf("Latency:     p50 %.2f ms  p99 %.2f ms  max %.2f ms (input to state)%n",
+                latency.percentile(50) / 1e6, latency.percentile(99) / 1e6, latency.getMax() / 1e6);
+        System.out.printf("Restarts:    %d%n", restarts);
+    }
+    
+    // Una sesión: réplica de la rejilla de ladrillos y de las bolas según los mensajes recibidos
+    class Connection {
+        final SocketChannel channel;
+        SelectionKey key;
+        
+        ByteBuffer in = ByteBuffer.allocate(16 * 1024);
+        final ByteBuffer out = ByteBuffer.allocate(1024);
+        
+        // Rejilla inicial (del WELCOME) y la actual
+        byte[] initialCells;
+        byte[] cells;
+        
+        // Bolas del último STATE y del anterior (para saber cuáles bajan)
+        int ballCount;
+        int[] ballX = new int[0];
+        int[] ballY = new int[0];
+        int[] previousY = new int[0];
+        int previousCount;
+        
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+        
+        void read() throws IOException {
+            int read = channel.read(in);
+            if (read < 0) {
+                throw new IOException("end of stream");
+            }
+            bytesIn += read;
+            
+            in.flip();
+            while (in.remaining() >= ServerProtocol.HEADER_SIZE) {
+                int length = in.getInt(in.position());
+                if (in.remaining() < 4 + length) {
+                    if (4 + length > in.capacity()) {
+                        // Mensaje mayor que el búfer (campo grande o muchas bolas)
+                        ByteBuffer larger = ByteBuffer.allocate(4 + length);
+                        larger.put(in);
+                        in = larger;
+                        return;
+                    }
+                    break;
+                }
+                int end = in.position() + 4 + length;
+                in.getInt();
+                byte type = in.get();
+                if (type == ServerProtocol.MSG_WELCOME) {
+                    readWelcome();
+                } else if (type == ServerProtocol.MSG_STATE) {
+                    readState();
+                } else {
+                    throw new IOException("Unknown message " + type);
+                }
+                in.position(end);
+            }
+            in.compact();
+        }
+        
+        private void readWelcome() {
+            in.getInt(); // sesión
+            in.getLong(); // semilla
+            in.getInt(); // ancho
+            in.getInt(); // alto
+            int rows = in.getInt();
+            int cols = in.getInt();
+            initialCells = new byte[rows * cols];
+            in.get(initialCells);
+            cells = initialCells.clone();
+        }
+        
+        private void readState() throws IOException {
+            long now = System.nanoTime();
+            in.getInt(); // tick
+            in.getLong(); // puntos
+            in.get(); // vidas
+            int flags = in.get();
+            long echo = in.getLong();
+            in.getInt(); // x del paddle
+            in.getInt(); // ancho del paddle
+            frames++;
+            if (echo != 0) {
+                latency.record(now - echo);
+            }
+            
+            if ((flags & ServerProtocol.FLAG_FIELD_RESET) != 0) {
+                System.arraycopy(initialCells, 0, cells, 0, cells.length);
+            }
+            int changes = in.getInt();
+            for (int i = 0; i < changes; i++) {
+                int cell = in.getInt();
+                cells[cell] = in.get();
+            }
+            
+            // Guardar las alturas anteriores para saber qué bolas bajan
+            if (previousY.length < ballY.length) {
+                previousY = new int[ballY.length];
+            }
+            System.arraycopy(ballY, 0, previousY, 0, ballCount);
+            previousCount = ballCount;
+            
+            ballCount = in.getInt();
+            if (ballX.length < ballCount) {
+                ballX = new int[Math.max(ballCount, ballX.length * 2)];
+                ballY = new int[ballX.length];
+            }
+            for (int i = 0; i < ballCount; i++) {
+                ballX[i] = in.getInt();
+                ballY[i] = in.getInt();
+            }
+            int powerUps = in.getShort();
+            in.position(in.position() + 9 * powerUps);
+            
+            int commands = 0;
+            if ((flags & ServerProtocol.FLAG_GAME_OVER) != 0) {
+                commands = InputMailbox.COMMAND_RESTART;
+                restarts++;
+            }
+            // Si el servidor no lee, no se acumulan entradas viejas
+            if (out.position() == 0) {
+                ServerProtocol.writeInput(out, paddleTarget(), commands, System.nanoTime());
+                flush();
+            }
+        }
+        
+        // Sigue a la bola más baja de las que bajan (o a la más baja si no se sabe)
+        private int paddleTarget() {
+            int target = -1;
+            for (int i = 0; i < ballCount; i++) {
+                boolean falling = i >= previousCount || ballY[i] >= previousY[i];
+                if (falling && (target < 0 || ballY[i] > ballY[target])) {
+                    target = i;
+                }
+            }
+            if (target < 0) {
+                return ServerProtocol.NO_PADDLE;
+            }
+            return ballX[target] / ServerProtocol.POSITION_SCALE;
+        }
+        
+        void flush() throws IOException {
+            out.flip();
+            bytesOut += channel.write(out);
+            out.compact();
+            key.interestOps(out.position() > 0
+                    ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+        
+        void close() {
+            connections.remove(this);
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Ya estaba cerrado
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+// Dispositivo sin sonido: descarta los bloques pero tarda lo que tardarían en sonar, así el
+// mezclador sigue drenando la cola de eventos al ritmo real (sin pantalla o sin tarjeta de sonido)
+
+import java.util.concurrent.locks.LockSupport;
+import javax.sound.sampled.AudioFormat;
+
+
+class NullAudioDevice implements AudioDevice {
+    
+    private final double nanosPerByte;
+    private long nextWrite;
+    
+    public NullAudioDevice(AudioFormat format) {
+        nanosPerByte = 1e9 / (format.getFrameRate() * format.getFrameSize());
+    }
+    
+    @Override
+    public void write(byte[] data, int length) {
+        long now = System.nanoTime();
+        if (nextWrite == 0 || nextWrite - now < 0) {
+            // Primer bloque o atrasados: no se intenta recuperar
+            nextWrite = now;
+        }
+        nextWrite += (long) (length * nanosPerByte);
+        LockSupport.parkNanos(nextWrite - now);
+    }
+    
+    @Override
+    public void close() {
+    }
+    
+    @Override
+    public String getName() {
+        return "null";
+    }
+}
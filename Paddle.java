@@ -22,6 +22,11 @@ class Paddle {
     }
     
     public void draw(Graphics2D g) {
+        draw(g, x, y, width, height);
+    }
+    
+    // Dibuja un paddle con la posición y tamaño dados
+    public static void draw(Graphics2D g, int x, int y, int width, int height) {
         g.setColor(Color.GREEN);
         g.fillRect(x, y, width, height);
     }
@@ -30,6 +35,10 @@ class Paddle {
         return x;
     }
     
+    public void setX(int x) {
+        this.x = x;
+    }
+    
     public int getY() {
         return y;
     }
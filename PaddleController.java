@@ -0,0 +1,23 @@
+// Controla el paddle en lugar del ratón: cada tick decide dónde ponerlo mirando el motor.
+// Se usa con el motor sin pantalla (HeadlessRunner --bot, benchmarks y pruebas largas).
+
+interface PaddleController {
+    
+    // Posición x para el próximo tick (centro del paddle, como el ratón en Paddle.moveTo)
+    // o InputMailbox.NO_INPUT para dejarlo donde está
+    int nextPaddleX(GameEngine engine);
+    
+    // Controladores incluidos: tracking, predictor y search. Cada partida necesita uno nuevo.
+    static PaddleController create(String name) {
+        switch (name) {
+            case "tracking":
+                return new TrackingController();
+            case "predictor":
+                return new PredictorController();
+            case "search":
+                return new SearchController();
+            default:
+                throw new IllegalArgumentException("Unknown controller: " + name);
+        }
+    }
+}
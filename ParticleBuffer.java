@@ -0,0 +1,227 @@
+// Partículas de los efectos de impacto (ladrillo roto, rebote en el paddle, power-up recogido) en un
+// búfer circular de capacidad fija, con los datos en arreglos paralelos de primitivos: después de
+// crearse no asigna nada. Todas se mueven en una sola pasada por tick, sin saltos: las apagadas
+// se quedan como huecos hasta que llegan al principio, así que no hay que mover datos. El
+// presupuesto acota el trabajo: con el búfer lleno las nuevas reemplazan a las más antiguas
+// (que suelen estar ya apagadas), con más de la mitad ocupada cada ráfaga emite la mitad y en
+// un tick no se emiten más de un cuarto del presupuesto.
+
+import java.awt.Color;
+
+
+class ParticleBuffer {
+    
+    // Partículas simultáneas por defecto
+    public static final int DEFAULT_BUDGET = 4096;
+    
+    // Colores distintos como máximo (el índice se guarda en un byte)
+    public static final int MAX_COLORS = 256;
+    
+    // Ráfagas: partículas, velocidad máxima, impulso hacia arriba, duración en ticks y tamaño inicial
+    private static final int BRICK_PARTICLES = 12;
+    private static final float BRICK_SPEED = 3;
+    private static final int BRICK_LIFE = 30;
+    private static final float BRICK_SIZE = 4;
+    
+    private static final int PADDLE_PARTICLES = 6;
+    private static final float PADDLE_SPEED = 2;
+    private static final float PADDLE_LIFT = 2;
+    private static final int PADDLE_LIFE = 15;
+    private static final float PADDLE_SIZE = 3;
+    
+    private static final int POWER_UP_PARTICLES = 16;
+    private static final float POWER_UP_SPEED = 4;
+    private static final float POWER_UP_LIFT = 1;
+    private static final int POWER_UP_LIFE = 40;
+    private static final float POWER_UP_SIZE = 4;
+    
+    // Aceleración hacia abajo por tick
+    private static final float GRAVITY = 0.15f;
+    
+    // Datos de cada partícula; ocupan las "count" posiciones que siguen a "head" (dando la vuelta),
+    // y las que tienen life == 0 ya se apagaron
+    private final int capacity;
+    private final float[] x;
+    private final float[] y;
+    private final float[] vx;
+    private final float[] vy;
+    private final float[] size;
+    private final short[] life;
+    private final short[] lifetime;
+    private final byte[] color;
+    private int head;
+    private int count;
+    
+    // Partículas que aún se pueden emitir en este tick
+    private int tickBudget;
+    
+    // Colores usados; solo se añaden, así que el renderizado comparte el arreglo (como el registro
+    // de cambios del campo) y lee las entradas anteriores a la cuenta publicada
+    private final Color[] palette = new Color[MAX_COLORS];
+    private int colorCount;
+    
+    // Generador propio: los efectos no tocan el aleatorio de la partida (las repeticiones no cambian)
+    private final GameRandom random = new GameRandom(0);
+    
+    // Partículas reemplazadas antes de terminar o no emitidas por el presupuesto
+    private long dropped;
+    
+    public ParticleBuffer(int budget) {
+        if (budget < 1) {
+            throw new IllegalArgumentException("Particle budget must be positive: " + budget);
+        }
+        capacity = budget;
+        x = new float[budget];
+        y = new float[budget];
+        vx = new float[budget];
+        vy = new float[budget];
+        size = new float[budget];
+        life = new short[budget];
+        lifetime = new short[budget];
+        color = new byte[budget];
+        palette[colorCount++] = Color.WHITE;
+        tickBudget = tickLimit();
+    }
+    
+    // Ladrillo destruido: esquirlas de su color en todas direcciones
+    public void brickBurst(float cx, float cy, Color brickColor) {
+        burst(cx, cy, BRICK_PARTICLES, BRICK_SPEED, 0, BRICK_LIFE, BRICK_SIZE, colorIndex(brickColor));
+    }
+    
+    // Rebote en el paddle: chispas blancas hacia arriba
+    public void paddleBurst(float cx, float top) {
+        burst(cx, top, PADDLE_PARTICLES, PADDLE_SPEED, PADDLE_LIFT, PADDLE_LIFE, PADDLE_SIZE, 0);
+    }
+    
+    // Power-up recogido: destello de su color
+    public void powerUpBurst(float cx, float cy, Color powerUpColor) {
+        burst(cx, cy, POWER_UP_PARTICLES, POWER_UP_SPEED, POWER_UP_LIFT, POWER_UP_LIFE, POWER_UP_SIZE,
+                colorIndex(powerUpColor));
+    }
+    
+    private void burst(float cx, float cy, int particles, float speed, float lift, int ticks, float startSize,
+                       int colorIndex) {
+        // Con el búfer muy ocupado (cadenas de explosiones, muchas bolas) cada ráfaga emite menos
+        if (count > capacity / 2) {
+            particles = (particles + 1) / 2;
+        }
+        if (particles > tickBudget) {
+            dropped += particles - tickBudget;
+            particles = tickBudget;
+        }
+        tickBudget -= particles;
+        
+        for (int i = 0; i < particles; i++) {
+            if (count == capacity) {
+                // Lleno: se reemplaza la más antigua
+                if (life[head] > 0) {
+                    dropped++;
+                }
+                head = head + 1 == capacity ? 0 : head + 1;
+                count--;
+            }
+            int slot = slot(count++);
+            x[slot] = cx;
+            y[slot] = cy;
+            vx[slot] = (random.nextFloat() * 2 - 1) * speed;
+            vy[slot] = (random.nextFloat() * 2 - 1) * speed - lift;
+            size[slot] = startSize;
+            // Duraciones algo distintas para que la ráfaga no desaparezca de golpe
+            int duration = ticks / 2 + (int) (random.nextFloat() * (ticks - ticks / 2)) + 1;
+            life[slot] = (short) duration;
+            lifetime[slot] = (short) duration;
+            color[slot] = (byte) colorIndex;
+        }
+    }
+    
+    // Mueve todas las partículas un tick: un bucle sin saltos por cada tramo contiguo del anillo
+    // (los huecos también se mueven, da igual). Después se liberan las apagadas del principio.
+    public void update() {
+        tickBudget = tickLimit();
+        int end = head + count;
+        move(head, Math.min(end, capacity));
+        if (end > capacity) {
+            move(0, end - capacity);
+        }
+        while (count > 0 && life[head] == 0) {
+            head = head + 1 == capacity ? 0 : head + 1;
+            count--;
+        }
+    }
+    
+    private void move(int from, int to) {
+        for (int i = from; i < to; i++) {
+            x[i] += vx[i];
+            y[i] += vy[i];
+            vy[i] += GRAVITY;
+            life[i] = (short) Math.max(life[i] - 1, 0);
+        }
+    }
+    
+    public void clear() {
+        head = 0;
+        count = 0;
+    }
+    
+    // Copia las partículas encendidas en orden de emisión con su tamaño actual (se encogen al
+    // apagarse) y devuelve cuántas son; los arreglos deben tener la capacidad del búfer
+    public int copyTo(float[] toX, float[] toY, float[] toSize, byte[] toColor) {
+        int copied = 0;
+        for (int i = 0; i < count; i++) {
+            int slot = slot(i);
+            if (life[slot] == 0) {
+                continue;
+            }
+            toX[copied] = x[slot];
+            toY[copied] = y[slot];
+            toSize[copied] = size[slot] * life[slot] / lifetime[slot];
+            toColor[copied] = color[slot];
+            copied++;
+        }
+        return copied;
+    }
+    
+    private int slot(int index) {
+        int slot = head + index;
+        return slot >= capacity ? slot - capacity : slot;
+    }
+    
+    private int tickLimit() {
+        return Math.max(capacity / 4, 1);
+    }
+    
+    // Índice del color en la paleta; si está llena se usa el blanco
+    private int colorIndex(Color c) {
+        for (int i = 0; i < colorCount; i++) {
+            if (palette[i] == c) {
+                return i;
+            }
+        }
+        if (colorCount == MAX_COLORS) {
+            return 0;
+        }
+        palette[colorCount] = c;
+        return colorCount++;
+    }
+    
+    // Posiciones ocupadas, huecos incluidos
+    public int size() {
+        return count;
+    }
+    
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    public long getDropped() {
+        return dropped;
+    }
+    
+    public Color[] getPalette() {
+        return palette;
+    }
+    
+    public int getColorCount() {
+        return colorCount;
+    }
+}
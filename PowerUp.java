@@ -3,24 +3,49 @@ import java.awt.FontMetrics;
 import java.awt.Font;
 import java.awt.Color;
 import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
 
 class PowerUp {
     private float x;
     private float y;
-    private final int width = 20;
-    private final int height = 20;
+    private static final int width = 20;
+    private static final int height = 20;
     private final float fallSpeed = 2.0f;
     private PowerUpType type;
     
-    // Tipos de power-ups
+    // Tipos de power-ups, con su color y letra indicadora
     public enum PowerUpType {
-        MULTI_BALL,    // Multiplica el número de bolas
-        EXTRA_LIFE,    // Da una vida extra
-        WIDER_PADDLE,  // Ensancha la paleta
-        SLOW_BALL      // Ralentiza todas las bolas
+        MULTI_BALL(Color.MAGENTA, "M"),    // Multiplica el número de bolas
+        EXTRA_LIFE(Color.RED, "L"),        // Da una vida extra
+        WIDER_PADDLE(Color.BLUE, "W"),     // Ensancha la paleta
+        SLOW_BALL(Color.CYAN, "S");        // Ralentiza todas las bolas
+        
+        private final Color color;
+        private final String letter;
+        
+        PowerUpType(Color color, String letter) {
+            this.color = color;
+            this.letter = letter;
+        }
+        
+        public Color getColor() {
+            return color;
+        }
     }
     
+    // Copia de values() para no crear un arreglo nuevo en cada consulta
+    public static final PowerUpType[] TYPES = PowerUpType.values();
+    
+    // Imágenes pre-renderizadas de cada tipo (se crean la primera vez que se dibujan)
+    private static final BufferedImage[] sprites = new BufferedImage[TYPES.length];
+    
     public PowerUp(float x, float y, PowerUpType type) {
+        reset(x, y, type);
+    }
+    
+    // Reutiliza la instancia para un power-up nuevo
+    public void reset(float x, float y, PowerUpType type) {
         this.x = x;
         this.y = y;
         this.type = type;
@@ -31,49 +56,35 @@ class PowerUp {
     }
     
     public void draw(Graphics2D g) {
-        // Color según el tipo de power-up
-        switch (type) {
-            case MULTI_BALL:
-                g.setColor(Color.MAGENTA);
-                break;
-            case EXTRA_LIFE:
-                g.setColor(Color.RED);
-                break;
-            case WIDER_PADDLE:
-                g.setColor(Color.BLUE);
-                break;
-            case SLOW_BALL:
-                g.setColor(Color.CYAN);
-                break;
+        draw(g, x, y, type);
+    }
+    
+    // Dibuja un power-up del tipo dado centrado en (x, y)
+    public static void draw(Graphics2D g, float x, float y, PowerUpType type) {
+        BufferedImage sprite = sprites[type.ordinal()];
+        if (sprite == null) {
+            sprite = createSprite(type);
+            sprites[type.ordinal()] = sprite;
         }
-        
-        // Dibujar el power-up como un círculo con letra indicadora
-        g.fillOval((int)x - width/2, (int)y - height/2, width, height);
+        g.drawImage(sprite, (int)x - width/2, (int)y - height/2, null);
+    }
+    
+    // Dibuja el power-up como un círculo con letra indicadora
+    private static BufferedImage createSprite(PowerUpType type) {
+        BufferedImage sprite = GameRenderer.createSpriteImage(width, height);
+        Graphics2D g = sprite.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setColor(type.color);
+        g.fillOval(0, 0, width, height);
         g.setColor(Color.WHITE);
         g.setFont(new Font("Arial", Font.BOLD, 12));
         
-        String letter;
-        switch (type) {
-            case MULTI_BALL:
-                letter = "M";
-                break;
-            case EXTRA_LIFE:
-                letter = "L";
-                break;
-            case WIDER_PADDLE:
-                letter = "W";
-                break;
-            case SLOW_BALL:
-                letter = "S";
-                break;
-            default:
-                letter = "?";
-        }
-        
         FontMetrics fm = g.getFontMetrics();
-        int textX = (int)x - fm.stringWidth(letter) / 2;
-        int textY = (int)y + fm.getHeight() / 3;
-        g.drawString(letter, textX, textY);
+        int textX = width/2 - fm.stringWidth(type.letter) / 2;
+        int textY = height/2 + fm.getHeight() / 3;
+        g.drawString(type.letter, textX, textY);
+        g.dispose();
+        return sprite;
     }
     
     public boolean intersects(Paddle paddle) {
@@ -93,4 +104,3 @@ class PowerUp {
         return type;
     }
 }
-
@@ -0,0 +1,51 @@
+// Almacén de power-ups de capacidad fija que recicla las instancias en lugar de crear nuevas
+
+class PowerUpPool {
+    
+    // Power-ups simultáneos como máximo; los que no caben se descartan
+    public static final int DEFAULT_CAPACITY = 256;
+    
+    // Los primeros "count" están activos; el resto son instancias libres para reutilizar
+    private final PowerUp[] powerUps;
+    private int count;
+    
+    public PowerUpPool(int capacity) {
+        powerUps = new PowerUp[capacity];
+        for (int i = 0; i < capacity; i++) {
+            powerUps[i] = new PowerUp(0, 0, PowerUp.PowerUpType.MULTI_BALL);
+        }
+    }
+    
+    // Activa un power-up reutilizando una instancia libre; devuelve false si el almacén está lleno
+    public boolean spawn(float x, float y, PowerUp.PowerUpType type) {
+        if (count == powerUps.length) {
+            return false;
+        }
+        powerUps[count++].reset(x, y, type);
+        return true;
+    }
+    
+    // Desactiva el power-up intercambiándolo con el último activo (el orden no se conserva)
+    public void remove(int i) {
+        int last = --count;
+        PowerUp removed = powerUps[i];
+        powerUps[i] = powerUps[last];
+        powerUps[last] = removed;
+    }
+    
+    public void clear() {
+        count = 0;
+    }
+    
+    public PowerUp get(int i) {
+        return powerUps[i];
+    }
+    
+    public int size() {
+        return count;
+    }
+    
+    public int capacity() {
+        return powerUps.length;
+    }
+}
@@ -0,0 +1,18 @@
+// Espera en el punto donde llegará la primera bola según TrajectoryPredictor, en lugar de
+// perseguir a la más baja: con muchas bolas se adelanta a la que de verdad cae antes
+
+class PredictorController implements PaddleController {
+    
+    private final TrajectoryPredictor predictor = new TrajectoryPredictor();
+    
+    @Override
+    public int nextPaddleX(GameEngine engine) {
+        Paddle paddle = engine.getPaddle();
+        predictor.predict(engine.getBalls(), paddle.getY(), engine.getWidth());
+        int first = predictor.firstToLand();
+        if (first < 0) {
+            return InputMailbox.NO_INPUT;
+        }
+        return (int) predictor.getLandingX(first) + TrackingController.steeringOffset(engine);
+    }
+}
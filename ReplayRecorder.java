@@ -0,0 +1,102 @@
+// Graba la entrada de una sesión (semilla, paddle por tick y comandos) en un archivo binario
+// compacto, para repetirla exactamente con ReplayRunner.
+//
+// Formato (big-endian):
+//   cabecera: int MAGIC, short VERSION, long semilla, int ancho, int alto,
+//             UTF archivo del nivel (vacío para el clásico)
+//   registros: byte etiqueta seguido de sus datos
+//     IDLE     ubyte n      n ticks sin movimiento del paddle (1-255)
+//     MOVE     int x        un tick con el paddle en x
+//     NUDGE    byte dx      un tick con el paddle desplazado dx desde la última x (-128..127)
+//     COMMANDS byte bits    comandos aplicados antes del siguiente tick (InputMailbox.COMMAND_*)
+//     END      long ticks, long checksum   fin de la sesión y resumen del estado final
+//
+// La versión 3 pasó ancho, alto y MOVE de short a int: con niveles generados anchos el mundo
+// pasa de 32767 píxeles. Las grabaciones anteriores no se pueden repetir y hay que volver a grabarlas.
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+
+class ReplayRecorder {
+    
+    static final int MAGIC = 0x42425250; // "BBRP"
+    static final short VERSION = 3;
+    
+    static final byte TAG_IDLE = 0;
+    static final byte TAG_MOVE = 1;
+    static final byte TAG_NUDGE = 2;
+    static final byte TAG_COMMANDS = 3;
+    static final byte TAG_END = 4;
+    
+    private final DataOutputStream out;
+    
+    // Ticks sin entrada aún no escritos y última x grabada
+    private int idleTicks;
+    private int lastX = InputMailbox.NO_INPUT;
+    private long ticks;
+    
+    public ReplayRecorder(Path path, GameEngine engine) throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeLong(engine.getSeed());
+        out.writeInt(engine.getWidth());
+        out.writeInt(engine.getHeight());
+        String level = engine.getLevel().getSource();
+        out.writeUTF(level != null ? level : "");
+    }
+    
+    // Registra un tick; paddleX es InputMailbox.NO_INPUT si el paddle no se movió
+    public void recordTick(int paddleX) throws IOException {
+        ticks++;
+        if (paddleX == InputMailbox.NO_INPUT) {
+            if (++idleTicks == 255) {
+                flushIdle();
+            }
+            return;
+        }
+        
+        flushIdle();
+        int delta = paddleX - lastX;
+        if (lastX != InputMailbox.NO_INPUT && delta >= Byte.MIN_VALUE && delta <= Byte.MAX_VALUE) {
+            out.writeByte(TAG_NUDGE);
+            out.writeByte(delta);
+        } else {
+            out.writeByte(TAG_MOVE);
+            out.writeInt(paddleX);
+        }
+        lastX = paddleX;
+    }
+    
+    // Registra los comandos que se aplican antes del siguiente tick
+    public void recordCommands(int commands) throws IOException {
+        flushIdle();
+        out.writeByte(TAG_COMMANDS);
+        out.writeByte(commands);
+    }
+    
+    // Cierra la grabación con el resumen del estado final
+    public void finish(GameEngine engine) throws IOException {
+        flushIdle();
+        out.writeByte(TAG_END);
+        out.writeLong(ticks);
+        out.writeLong(engine.checksum());
+        out.close();
+    }
+    
+    private void flushIdle() throws IOException {
+        if (idleTicks > 0) {
+            out.writeByte(TAG_IDLE);
+            out.writeByte(idleTicks);
+            idleTicks = 0;
+        }
+    }
+    
+    public long getTicks() {
+        return ticks;
+    }
+}
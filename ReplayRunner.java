@@ -0,0 +1,166 @@
+// Repite sin pantalla y a máxima velocidad una sesión grabada con ReplayRecorder y comprueba
+// que el estado final coincide con el grabado. Sirve para comparar el rendimiento entre versiones
+// con exactamente la misma partida.
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+
+class ReplayRunner {
+    
+    // Resultado de una repetición
+    static final class Result {
+        long ticks;
+        long checksum;
+        long expectedTicks;
+        long expectedChecksum;
+        long score;
+        long nanos;
+        
+        boolean matches() {
+            return ticks == expectedTicks && checksum == expectedChecksum;
+        }
+    }
+    
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        
+        String file = null;
+        int repeat = 1;
+        Boolean parallel = null;
+        
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--repeat":
+                    repeat = Integer.parseInt(args[++i]);
+                    break;
+                case "--mode":
+                    parallel = args[++i].equals("parallel");
+                    break;
+                default:
+                    if (file == null && !args[i].startsWith("--")) {
+                        file = args[i];
+                        break;
+                    }
+                    System.err.println("Unknown option: " + args[i]);
+                    printUsage();
+                    System.exit(2);
+            }
+        }
+        if (file == null) {
+            printUsage();
+            System.exit(2);
+        }
+        
+        byte[] data;
+        try {
+            data = Files.readAllBytes(Paths.get(file));
+        } catch (IOException e) {
+            System.err.println("Cannot read " + file + ": " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        
+        long bestNanos = Long.MAX_VALUE;
+        long totalNanos = 0;
+        Result result = null;
+        for (int i = 0; i < repeat; i++) {
+            try {
+                result = replay(ByteBuffer.wrap(data), parallel);
+            } catch (IllegalArgumentException e) {
+                System.err.println("Cannot replay " + file + ": " + e.getMessage());
+                System.exit(1);
+                return;
+            }
+            bestNanos = Math.min(bestNanos, result.nanos);
+            totalNanos += result.nanos;
+            if (!result.matches()) {
+                break;
+            }
+        }
+        
+        System.out.printf("Replay:      %s (%d bytes)%n", file, data.length);
+        System.out.printf("Ticks:       %d%n", result.ticks);
+        System.out.printf("Score:       %d%n", result.score);
+        System.out.printf("Checksum:    %016x (%s)%n", result.checksum, result.matches() ? "OK" : "MISMATCH, expected "
+                + String.format("%016x after %d ticks", result.expectedChecksum, result.expectedTicks));
+        System.out.printf("Ticks/sec:   best %.0f  mean %.0f (%d runs)%n",
+                result.ticks / (bestNanos / 1e9), result.ticks * (double) repeat / (totalNanos / 1e9), repeat);
+        if (!result.matches()) {
+            System.exit(1);
+        }
+    }
+    
+    // Repite la grabación en un motor nuevo. Si parallel no es null, fuerza ese modo e ignora
+    // los cambios de modo grabados (el resultado debe ser el mismo en serie y en paralelo).
+    static Result replay(ByteBuffer in, Boolean parallel) {
+        if (in.getInt() != ReplayRecorder.MAGIC) {
+            throw new IllegalArgumentException("Not a replay file");
+        }
+        short version = in.getShort();
+        if (version != ReplayRecorder.VERSION) {
+            throw new IllegalArgumentException("Unsupported replay version " + version + " (expected "
+                    + ReplayRecorder.VERSION + "); record the session again");
+        }
+        long seed = in.getLong();
+        int width = in.getInt();
+        int height = in.getInt();
+        byte[] levelName = new byte[in.getShort() & 0xFFFF];
+        in.get(levelName);
+        
+        // El nivel se vuelve a cargar de su archivo (modified UTF-8 coincide con UTF-8 en rutas normales)
+        String levelPath = new String(levelName, StandardCharsets.UTF_8);
+        Level level = levelPath.isEmpty() ? Level.classic() : HeadlessRunner.loadLevel(Paths.get(levelPath));
+        GameEngine engine = new GameEngine(width, height, seed, level);
+        if (parallel != null) {
+            engine.setParallel(parallel);
+        }
+        
+        Result result = new Result();
+        int lastX = InputMailbox.NO_INPUT;
+        long start = System.nanoTime();
+        try {
+            while (true) {
+                byte tag = in.get();
+                if (tag == ReplayRecorder.TAG_IDLE) {
+                    int idle = in.get() & 0xFF;
+                    for (int i = 0; i < idle; i++) {
+                        engine.update();
+                    }
+                    result.ticks += idle;
+                } else if (tag == ReplayRecorder.TAG_MOVE || tag == ReplayRecorder.TAG_NUDGE) {
+                    lastX = tag == ReplayRecorder.TAG_MOVE ? in.getInt() : lastX + in.get();
+                    engine.movePaddle(lastX);
+                    engine.update();
+                    result.ticks++;
+                } else if (tag == ReplayRecorder.TAG_COMMANDS) {
+                    int commands = in.get();
+                    if (parallel != null) {
+                        commands &= ~InputMailbox.COMMAND_TOGGLE_PARALLEL;
+                    }
+                    GameLoop.applyCommands(engine, commands);
+                } else if (tag == ReplayRecorder.TAG_END) {
+                    result.expectedTicks = in.getLong();
+                    result.expectedChecksum = in.getLong();
+                    break;
+                } else {
+                    throw new IllegalArgumentException("Corrupt replay: unknown record " + tag);
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated replay (recording was not closed)", e);
+        }
+        result.nanos = System.nanoTime() - start;
+        result.checksum = engine.checksum();
+        result.score = engine.getScoreManager().getScore();
+        return result;
+    }
+    
+    private static void printUsage() {
+        System.err.println("Usage: --replay file [--repeat N] [--mode serial|parallel]");
+    }
+}
@@ -1,21 +1,170 @@
-// Gestiona la puntuación del jugador
+// Gestiona la puntuación del jugador: total, combos y desglose por origen.
+// Los acumuladores son LongAdder, así que se pueden sumar puntos desde varios hilos sin bloqueos.
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
 
 class ScoreManager {
-    private int score;
+    
+    // Golpes seguidos sin tocar el paddle que suben el multiplicador en uno, y multiplicador máximo
+    public static final int COMBO_STEP = 5;
+    public static final int MAX_MULTIPLIER = 4;
+    
+    private final LongAdder score = new LongAdder();
+    
+    // Desglose: ladrillos golpeados por fila (puntos base), extra por combo, explosiones y power-ups
+    private final LongAdder[] rowPoints;
+    private final LongAdder comboPoints = new LongAdder();
+    private final LongAdder explosionPoints = new LongAdder();
+    private final LongAdder powerUpPoints = new LongAdder();
+    
+    // Golpes seguidos desde el último toque del paddle y la mejor racha de la partida
+    private final AtomicInteger combo = new AtomicInteger();
+    private final AtomicInteger maxCombo = new AtomicInteger();
     
     public ScoreManager() {
-        score = 0;
+        this(1);
+    }
+    
+    // rows: filas del campo de ladrillos, para el desglose por fila
+    public ScoreManager(int rows) {
+        rowPoints = new LongAdder[Math.max(rows, 1)];
+        for (int i = 0; i < rowPoints.length; i++) {
+            rowPoints[i] = new LongAdder();
+        }
+    }
+    
+    // Puntos de un ladrillo golpeado por una bola. Si da puntos alarga el combo y se multiplican;
+    // los golpes sin puntos (indestructibles o que solo dañan) no cortan ni alargan la racha
+    public void addBrickPoints(int row, int points) {
+        if (points <= 0) {
+            return;
+        }
+        int hits = combo.incrementAndGet();
+        maxCombo.accumulateAndGet(hits, Math::max);
+        int multiplier = multiplierFor(hits);
+        rowPoints[row].add(points);
+        comboPoints.add((long) points * (multiplier - 1));
+        score.add((long) points * multiplier);
+    }
+    
+    // Puntos de ladrillos destruidos por explosiones (sin multiplicador)
+    public void addExplosionPoints(int points) {
+        if (points > 0) {
+            explosionPoints.add(points);
+            score.add(points);
+        }
+    }
+    
+    public void addPowerUpPoints(int points) {
+        powerUpPoints.add(points);
+        score.add(points);
     }
     
-    public void addPoints(int points) {
-        score += points;
+    // Una bola tocó el paddle: se corta el combo
+    public void resetCombo() {
+        combo.set(0);
     }
     
-    public int getScore() {
-        return score;
+    public long getScore() {
+        return score.sum();
+    }
+    
+    public int getCombo() {
+        return combo.get();
+    }
+    
+    public int getMaxCombo() {
+        return maxCombo.get();
+    }
+    
+    public int getMultiplier() {
+        return multiplierFor(combo.get());
+    }
+    
+    static int multiplierFor(int hits) {
+        return hits <= 0 ? 1 : Math.min(1 + (hits - 1) / COMBO_STEP, MAX_MULTIPLIER);
+    }
+    
+    // Copia los contadores en stats (reutilizando sus arreglos) y la devuelve.
+    // Con sumas concurrentes no es una foto atómica; el motor la toma entre ticks.
+    public Stats snapshot(Stats stats) {
+        stats.score = score.sum();
+        stats.combo = combo.get();
+        stats.maxCombo = maxCombo.get();
+        stats.multiplier = multiplierFor(stats.combo);
+        stats.comboPoints = comboPoints.sum();
+        stats.explosionPoints = explosionPoints.sum();
+        stats.powerUpPoints = powerUpPoints.sum();
+        if (stats.rowPoints.length != rowPoints.length) {
+            stats.rowPoints = new long[rowPoints.length];
+        }
+        for (int i = 0; i < rowPoints.length; i++) {
+            stats.rowPoints[i] = rowPoints[i].sum();
+        }
+        return stats;
+    }
+    
+    // Vuelve a una foto tomada con snapshot (de un campo con las mismas filas)
+    public void restore(Stats stats) {
+        resetScore();
+        score.add(stats.score);
+        for (int i = 0; i < rowPoints.length; i++) {
+            rowPoints[i].add(stats.rowPoints[i]);
+        }
+        comboPoints.add(stats.comboPoints);
+        explosionPoints.add(stats.explosionPoints);
+        powerUpPoints.add(stats.powerUpPoints);
+        combo.set(stats.combo);
+        maxCombo.set(stats.maxCombo);
     }
     
     public void resetScore() {
-        score = 0;
+        score.reset();
+        for (LongAdder row : rowPoints) {
+            row.reset();
+        }
+        comboPoints.reset();
+        explosionPoints.reset();
+        powerUpPoints.reset();
+        combo.set(0);
+        maxCombo.set(0);
+    }
+    
+    // Foto de la puntuación para el HUD y las estadísticas; se puede reutilizar y acumular
+    static class Stats {
+        long score;
+        int combo;
+        int multiplier = 1;
+        int maxCombo;
+        long[] rowPoints = new long[0];
+        long comboPoints;
+        long explosionPoints;
+        long powerUpPoints;
+        
+        // Suma otra foto a esta (para totales de varias partidas); el combo actual no se suma
+        void add(Stats other) {
+            score += other.score;
+            maxCombo = Math.max(maxCombo, other.maxCombo);
+            if (rowPoints.length < other.rowPoints.length) {
+                rowPoints = Arrays.copyOf(rowPoints, other.rowPoints.length);
+            }
+            for (int i = 0; i < other.rowPoints.length; i++) {
+                rowPoints[i] += other.rowPoints[i];
+            }
+            comboPoints += other.comboPoints;
+            explosionPoints += other.explosionPoints;
+            powerUpPoints += other.powerUpPoints;
+        }
+        
+        long getBrickPoints() {
+            long sum = 0;
+            for (long points : rowPoints) {
+                sum += points;
+            }
+            return sum;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,78 @@
+// Busca la mejor forma de recibir la próxima bola: prueba varios puntos de impacto a lo largo del
+// paddle, simulando cada uno unos segundos en un motor aparte a partir del estado actual
+// (GameEngine.saveState/restoreState), y se queda con el que más puntos da sin perder vidas.
+// Entre búsquedas se coloca como PredictorController con el desplazamiento elegido.
+
+class SearchController implements PaddleController {
+
+    // Puntos de impacto probados (repartidos a lo largo del paddle), ticks simulados por prueba
+    // y cada cuántos ticks se vuelve a buscar
+    private static final int CANDIDATES = 5;
+    private static final int HORIZON_TICKS = 90;
+    private static final int PLAN_INTERVAL_TICKS = 30;
+
+    // Penalización por vida perdida en la simulación, en puntos
+    private static final int LIFE_PENALTY = 10_000;
+
+    private final TrajectoryPredictor predictor = new TrajectoryPredictor();
+    private final TrajectoryPredictor rolloutPredictor = new TrajectoryPredictor();
+
+    // Estado desde el que parte cada prueba y el motor donde se simulan
+    private final GameState root = new GameState();
+    private GameEngine simulation;
+
+    private int offset;
+    private long nextPlanTick = Long.MIN_VALUE;
+
+    @Override
+    public int nextPaddleX(GameEngine engine) {
+        if (engine.getTick() >= nextPlanTick) {
+            offset = plan(engine);
+            nextPlanTick = engine.getTick() + PLAN_INTERVAL_TICKS;
+        }
+        return target(engine, predictor, offset);
+    }
+
+    // Desplazamiento con mejor resultado simulado
+    private int plan(GameEngine engine) {
+        if (simulation == null || simulation.getLevel() != engine.getLevel()) {
+            simulation = new GameEngine(engine.getWidth(), engine.getHeight(), engine.getSeed(), engine.getLevel());
+        }
+        engine.saveState(root);
+
+        int paddleWidth = engine.getPaddle().getWidth();
+        int preferred = TrackingController.steeringOffset(engine);
+        int bestOffset = 0;
+        long bestValue = Long.MIN_VALUE;
+        for (int c = 0; c < CANDIDATES; c++) {
+            int candidate = (c - CANDIDATES / 2) * paddleWidth / (CANDIDATES + 1);
+            simulation.restoreState(root);
+            for (int t = 0; t < HORIZON_TICKS && !simulation.isGameOver(); t++) {
+                int x = target(simulation, rolloutPredictor, candidate);
+                if (x != InputMailbox.NO_INPUT) {
+                    simulation.movePaddle(x);
+                }
+                simulation.update();
+            }
+            long value = simulation.getScoreManager().getScore() - root.score.score
+                    - (long) LIFE_PENALTY * (root.lives - simulation.getLives());
+            // En caso de empate (p. ej. ningún ladrillo al alcance) se prefiere el desplazamiento que
+            // va rotando como en TrackingController, para no quedar rebotando siempre igual
+            if (value > bestValue
+                    || (value == bestValue && Math.abs(candidate - preferred) < Math.abs(bestOffset - preferred))) {
+                bestValue = value;
+                bestOffset = candidate;
+            }
+        }
+        return bestOffset;
+    }
+
+    private static int target(GameEngine engine, TrajectoryPredictor predictor, int offset) {
+        predictor.predict(engine.getBalls(), engine.getPaddle().getY(), engine.getWidth());
+        int first = predictor.firstToLand();
+        if (first < 0) {
+            return InputMailbox.NO_INPUT;
+        }
+        return (int) predictor.getLandingX(first) + offset;
+    }
+}
@@ -0,0 +1,162 @@
+// Protocolo binario del servidor de sesiones (GameServer) y su cliente de carga (LoadClient).
+//
+// Cada mensaje (big-endian): int longitud (bytes que siguen), byte tipo y sus datos.
+//
+// Cliente -> servidor
+//   JOIN     long semilla                          crea la sesión de esta conexión
+//   INPUT    int x del paddle (NO_PADDLE si no se movió), byte comandos (InputMailbox.COMMAND_*),
+//            long marca del cliente (se devuelve en el siguiente STATE para medir la latencia)
+//
+// Servidor -> cliente
+//   WELCOME  int sesión, long semilla, int ancho, int alto, int filas, int columnas,
+//            byte por celda (ver cellState)
+//   STATE    int tick, long puntos, byte vidas, byte flags, long marca del último INPUT,
+//            int x y ancho del paddle,
+//            int cambios de ladrillos y por cada uno: int celda, byte estado
+//            int bolas y por cada una: int x, int y (en 1/POSITION_SCALE píxeles)
+//            short power-ups y por cada uno: int x, int y, byte tipo (ordinal)
+//
+// Las medidas van en int: el mundo crece con el nivel y los niveles generados pasan de decenas de
+// miles de píxeles, más de lo que cabe en un short (y mucho más en punto fijo).
+//
+// Un STATE solo lleva los ladrillos que cambiaron desde el último STATE enviado a ese cliente;
+// bolas y power-ups van siempre completos porque se mueven en cada tick. Si el campo se reinició
+// (FLAG_FIELD_RESET) el cliente vuelve a la rejilla del WELCOME antes de aplicar los cambios.
+
+import java.nio.ByteBuffer;
+
+
+class ServerProtocol {
+    
+    static final byte MSG_JOIN = 1;
+    static final byte MSG_INPUT = 2;
+    static final byte MSG_WELCOME = 16;
+    static final byte MSG_STATE = 17;
+    
+    static final int HEADER_SIZE = 5;
+    static final int MAX_CLIENT_MESSAGE = 64;
+    
+    // Longitud exacta (tipo y datos) de cada mensaje del cliente
+    static final int JOIN_LENGTH = 1 + 8;
+    static final int INPUT_LENGTH = 1 + 4 + 1 + 8;
+    
+    static final int NO_PADDLE = Integer.MIN_VALUE;
+    
+    static final int FLAG_GAME_OVER = 1;
+    static final int FLAG_VICTORY = 2;
+    static final int FLAG_FIELD_RESET = 4;
+    
+    // Estado de una celda: 0 vacía, 1-254 golpes que le quedan (como mucho 254), 255 indestructible
+    static final int CELL_INDESTRUCTIBLE = 255;
+    
+    // Las posiciones viajan en punto fijo con 4 bits de fracción
+    static final int POSITION_SCALE = 16;
+    
+    private static final int STATE_FIXED_SIZE = HEADER_SIZE + 4 + 8 + 1 + 1 + 8 + 4 + 4 + 4 + 4 + 2;
+    
+    static int cellState(BrickField field, int cell) {
+        if (!field.isAlive(cell)) {
+            return 0;
+        }
+        if (field.getKind(cell).type == Level.BrickType.INDESTRUCTIBLE) {
+            return CELL_INDESTRUCTIBLE;
+        }
+        return Math.min(field.getRemainingHits(cell), CELL_INDESTRUCTIBLE - 1);
+    }
+    
+    static int welcomeSize(GameEngine engine) {
+        return HEADER_SIZE + 4 + 8 + 4 * 4 + engine.getBrickField().getCellCount();
+    }
+    
+    static void writeWelcome(ByteBuffer out, int sessionId, GameEngine engine) {
+        BrickField field = engine.getBrickField();
+        int start = beginMessage(out, MSG_WELCOME);
+        out.putInt(sessionId);
+        out.putLong(engine.getSeed());
+        out.putInt(engine.getWidth());
+        out.putInt(engine.getHeight());
+        out.putInt(field.getRows());
+        out.putInt(field.getCols());
+        for (int cell = 0; cell < field.getCellCount(); cell++) {
+            out.put((byte) cellState(field, cell));
+        }
+        endMessage(out, start);
+    }
+    
+    // Tamaño máximo de un STATE con los cambios de ladrillos desde fromChange
+    static int stateSize(GameEngine engine, int fromChange) {
+        int changes = engine.getBrickField().getChangeCount() - fromChange;
+        return STATE_FIXED_SIZE + 5 * changes + 8 * engine.getBalls().size() + 9 * engine.getPowerUps().size();
+    }
+    
+    static void writeState(ByteBuffer out, GameEngine engine, int fromChange, boolean fieldReset, long echo) {
+        BrickField field = engine.getBrickField();
+        int start = beginMessage(out, MSG_STATE);
+        out.putInt((int) engine.getTick());
+        out.putLong(engine.getScoreManager().getScore());
+        out.put((byte) Math.min(engine.getLives(), 127));
+        out.put((byte) ((engine.isGameOver() ? FLAG_GAME_OVER : 0) | (engine.isVictory() ? FLAG_VICTORY : 0)
+                | (fieldReset ? FLAG_FIELD_RESET : 0)));
+        out.putLong(echo);
+        out.putInt(engine.getPaddle().getX());
+        out.putInt(engine.getPaddle().getWidth());
+        
+        int changes = field.getChangeCount();
+        out.putInt(changes - fromChange);
+        for (int i = fromChange; i < changes; i++) {
+            int cell = field.getChangedCell(i);
+            out.putInt(cell);
+            out.put((byte) cellState(field, cell));
+        }
+        
+        BallPool balls = engine.getBalls();
+        float[] x = balls.getXs();
+        float[] y = balls.getYs();
+        out.putInt(balls.size());
+        for (int i = 0; i < balls.size(); i++) {
+            out.putInt(toFixed(x[i]));
+            out.putInt(toFixed(y[i]));
+        }
+        
+        PowerUpPool powerUps = engine.getPowerUps();
+        out.putShort((short) powerUps.size());
+        for (int i = 0; i < powerUps.size(); i++) {
+            PowerUp powerUp = powerUps.get(i);
+            out.putInt(toFixed(powerUp.getX()));
+            out.putInt(toFixed(powerUp.getY()));
+            out.put((byte) powerUp.getType().ordinal());
+        }
+        endMessage(out, start);
+    }
+    
+    static void writeJoin(ByteBuffer out, long seed) {
+        int start = beginMessage(out, MSG_JOIN);
+        out.putLong(seed);
+        endMessage(out, start);
+    }
+    
+    static void writeInput(ByteBuffer out, int paddleX, int commands, long stamp) {
+        int start = beginMessage(out, MSG_INPUT);
+        out.putInt(paddleX);
+        out.put((byte) commands);
+        out.putLong(stamp);
+        endMessage(out, start);
+    }
+    
+    // Math.round satura en los extremos de int (unos 134 millones de píxeles)
+    static int toFixed(float value) {
+        return Math.round(value * POSITION_SCALE);
+    }
+    
+    // Deja sitio para la longitud y escribe el tipo; devuelve la posición del mensaje
+    private static int beginMessage(ByteBuffer out, byte type) {
+        int start = out.position();
+        out.putInt(0);
+        out.put(type);
+        return start;
+    }
+    
+    private static void endMessage(ByteBuffer out, int start) {
+        out.putInt(start, out.position() - start - 4);
+    }
+}
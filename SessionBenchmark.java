@@ -0,0 +1,114 @@
+// Cuántas sesiones simultáneas sostiene una JVM a 60 Hz: arranca N bucles de juego sin pantalla
+// (con paddle automático y reinicio al terminar), mide los ticks por segundo que consiguen
+// y duplica N hasta que no llegan al 95% del ritmo objetivo.
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+
+
+class SessionBenchmark {
+    
+    // Fracción del ritmo objetivo que cuenta como sostenido
+    private static final double SUSTAINED = 0.95;
+    
+    public static void main(String[] args) throws InterruptedException {
+        System.setProperty("java.awt.headless", "true");
+        
+        GameThreads.Mode mode = GameThreads.Mode.PLATFORM;
+        int firstSessions = 16;
+        int maxSessions = 1 << 16;
+        int seconds = 5;
+        
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads":
+                    mode = GameThreads.parseMode(args[++i]);
+                    break;
+                case "--from":
+                    firstSessions = Integer.parseInt(args[++i]);
+                    break;
+                case "--max":
+                    maxSessions = Integer.parseInt(args[++i]);
+                    break;
+                case "--seconds":
+                    seconds = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.err.println("Usage: java SessionBenchmark [--threads platform|virtual] [--from N] [--max N]"
+                            + " [--seconds S]");
+                    System.exit(2);
+            }
+        }
+        if (mode == GameThreads.Mode.VIRTUAL && !GameThreads.virtualThreadsSupported()) {
+            System.err.println("Virtual threads are not available in Java " + Runtime.version().feature());
+            System.exit(1);
+        }
+        
+        System.out.printf("Threads: %s, %d CPUs, target %d Hz%n", mode.name().toLowerCase(),
+                Runtime.getRuntime().availableProcessors(), GameEngine.TICKS_PER_SECOND);
+        System.out.printf("%10s %12s %10s %12s %14s %10s%n", "Sessions", "Hz/session", "of target", "tick p99 us",
+                "JVM threads", "heap MB");
+        
+        int sustained = 0;
+        for (int sessions = firstSessions; sessions <= maxSessions; sessions *= 2) {
+            double hz = run(sessions, mode, seconds);
+            if (hz < SUSTAINED * GameEngine.TICKS_PER_SECOND) {
+                break;
+            }
+            sustained = sessions;
+        }
+        System.out.printf("Sustained at %d Hz: %d sessions%n", GameEngine.TICKS_PER_SECOND, sustained);
+    }
+    
+    // Ejecuta sessions bucles durante seconds segundos (tras uno de calentamiento); devuelve los Hz medios
+    private static double run(int sessions, GameThreads.Mode mode, int seconds) throws InterruptedException {
+        ThreadFactory threads = GameThreads.factory(mode, "Session");
+        GameMetrics metrics = new GameMetrics();
+        List<GameLoop> loops = new ArrayList<>(sessions);
+        
+        for (int i = 0; i < sessions; i++) {
+            GameEngine engine = new GameEngine(i);
+            InputMailbox mailbox = new InputMailbox();
+            // El callback corre en el hilo del bucle tras cada iteración: ahí se juega solo
+            Runnable autoPlay = () -> {
+                if (engine.isGameOver()) {
+                    mailbox.postCommand(InputMailbox.COMMAND_RESTART);
+                } else {
+                    mailbox.postPaddleX(HeadlessRunner.autoPaddleX(engine));
+                }
+            };
+            GameLoop loop = new GameLoop(engine, mailbox, autoPlay, threads);
+            loop.setMetrics(metrics);
+            loops.add(loop);
+        }
+        for (GameLoop loop : loops) {
+            loop.start();
+        }
+        
+        Thread.sleep(1000);
+        metrics.reset();
+        long start = System.nanoTime();
+        Thread.sleep(seconds * 1000L);
+        long ticks = metrics.getCount(GameMetrics.Counter.TICKS);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        int jvmThreads = ManagementFactory.getThreadMXBean().getThreadCount();
+        Runtime runtime = Runtime.getRuntime();
+        long heapMb = (runtime.totalMemory() - runtime.freeMemory()) >> 20;
+        
+        for (GameLoop loop : loops) {
+            loop.stopLoop();
+        }
+        for (GameLoop loop : loops) {
+            loop.join();
+        }
+        
+        double hz = ticks / elapsed / sessions;
+        System.out.printf("%10d %12.1f %9.1f%% %12.1f %14d %10d%n", sessions, hz,
+                100 * hz / GameEngine.TICKS_PER_SECOND,
+                metrics.getHistogram(GameMetrics.Phase.TICK).percentile(99) / 1e3, jvmThreads, heapMb);
+        return hz;
+    }
+}
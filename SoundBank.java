@@ -0,0 +1,94 @@
+// Muestras de los sonidos ya decodificadas en memoria (PCM de 16 bits, mono, a la frecuencia del
+// mezclador): el mezclador solo suma arreglos, nunca lee archivos ni decodifica mientras suena.
+// Por defecto se sintetizan; con un directorio, <sonido>.wav (p. ej. brick_break.wav) reemplaza
+// al sintetizado si se puede convertir al formato del mezclador.
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+
+class SoundBank {
+    
+    private final float sampleRate;
+    private final short[][] samples = new short[SoundQueue.SOUNDS.length][];
+    
+    // Ruido del sonido de ladrillo roto (con semilla fija: siempre suena igual)
+    private final GameRandom random = new GameRandom(1);
+    
+    public SoundBank(float sampleRate) {
+        this.sampleRate = sampleRate;
+        samples[SoundQueue.Sound.BRICK_HIT.ordinal()] = tone(660, 660, 0.05f, 0, 60);
+        samples[SoundQueue.Sound.BRICK_BREAK.ordinal()] = tone(880, 440, 0.09f, 0.35f, 35);
+        samples[SoundQueue.Sound.PADDLE_HIT.ordinal()] = tone(330, 300, 0.06f, 0, 45);
+        samples[SoundQueue.Sound.POWER_UP.ordinal()] = tone(440, 1320, 0.25f, 0, 8);
+        samples[SoundQueue.Sound.LIFE_LOST.ordinal()] = tone(440, 110, 0.5f, 0, 4);
+    }
+    
+    // Reemplaza los sonidos que tengan un .wav en el directorio; los que no se puedan leer se
+    // avisan y se quedan con el sintetizado
+    public void load(Path directory) {
+        for (SoundQueue.Sound sound : SoundQueue.SOUNDS) {
+            Path path = directory.resolve(sound.name().toLowerCase() + ".wav");
+            if (!Files.isRegularFile(path)) {
+                continue;
+            }
+            try {
+                samples[sound.ordinal()] = decode(path);
+            } catch (IOException | UnsupportedAudioFileException | IllegalArgumentException e) {
+                System.err.println("Cannot load sound " + path + ": " + e.getMessage());
+            }
+        }
+    }
+    
+    // Lee el archivo entero y lo convierte a PCM de 16 bits mono a la frecuencia del mezclador
+    private short[] decode(Path path) throws IOException, UnsupportedAudioFileException {
+        AudioFormat target = new AudioFormat(sampleRate, 16, 1, true, false);
+        try (AudioInputStream source = AudioSystem.getAudioInputStream(path.toFile());
+             AudioInputStream converted = AudioSystem.getAudioInputStream(target, source)) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = converted.read(buffer)) > 0) {
+                bytes.write(buffer, 0, read);
+            }
+            byte[] data = bytes.toByteArray();
+            short[] pcm = new short[data.length / 2];
+            for (int i = 0; i < pcm.length; i++) {
+                pcm[i] = (short) ((data[2 * i] & 0xFF) | data[2 * i + 1] << 8);
+            }
+            return pcm;
+        }
+    }
+    
+    // Tono con barrido de frecuencia (de "from" a "to" Hz), algo de ruido y caída exponencial
+    // ("decay" por segundo). Los primeros milisegundos suben en rampa para evitar el chasquido.
+    private short[] tone(float from, float to, float seconds, float noise, float decay) {
+        int length = (int) (seconds * sampleRate);
+        int attack = (int) (0.002f * sampleRate);
+        short[] pcm = new short[length];
+        double phase = 0;
+        for (int i = 0; i < length; i++) {
+            float t = (float) i / length;
+            phase += 2 * Math.PI * (from + (to - from) * t) / sampleRate;
+            double value = Math.sin(phase) * (1 - noise) + (random.nextFloat() * 2 - 1) * noise;
+            double envelope = Math.exp(-decay * i / sampleRate) * Math.min(1, (double) i / attack);
+            // Sin llegar al máximo: varias voces a la vez no saturan tan pronto
+            pcm[i] = (short) (value * envelope * 0.4 * Short.MAX_VALUE);
+        }
+        return pcm;
+    }
+    
+    public short[] get(SoundQueue.Sound sound) {
+        return samples[sound.ordinal()];
+    }
+    
+    public float getSampleRate() {
+        return sampleRate;
+    }
+}
@@ -0,0 +1,87 @@
+// Cola sin bloqueos de eventos de sonido, de la simulación (un solo productor) al hilo del
+// mezclador (un solo consumidor). Cada evento es un int con el sonido y su posición en estéreo.
+// Si la cola está llena el evento se descarta: la simulación nunca espera al audio.
+
+import java.util.concurrent.atomic.AtomicLong;
+
+
+class SoundQueue {
+    
+    // Sonidos del juego (el mezclador tiene una muestra para cada uno)
+    enum Sound {
+        BRICK_HIT,     // ladrillo golpeado que sigue en pie
+        BRICK_BREAK,   // ladrillo destruido (por una bola o una explosión)
+        PADDLE_HIT,    // rebote en el paddle
+        POWER_UP,      // power-up recogido
+        LIFE_LOST      // se perdió la última bola
+    }
+    
+    public static final Sound[] SOUNDS = Sound.values();
+    
+    // Eventos en vuelo como máximo (potencia de dos)
+    public static final int DEFAULT_CAPACITY = 1024;
+    
+    // Posición en estéreo: 0 a la izquierda, PAN_CENTER en el centro, PAN_MAX a la derecha
+    public static final int PAN_MAX = 255;
+    public static final int PAN_CENTER = 128;
+    
+    private final int[] events;
+    private final int mask;
+    
+    // Siguiente posición a escribir (solo la avanza el productor) y a leer (solo el consumidor)
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    
+    // Copia de head que guarda el productor para no leer la variable compartida en cada evento
+    private long cachedHead;
+    
+    // Eventos descartados por la cola llena (solo los cuenta el productor)
+    private volatile long dropped;
+    
+    public SoundQueue(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Sound queue capacity must be a power of two: " + capacity);
+        }
+        events = new int[capacity];
+        mask = capacity - 1;
+    }
+    
+    // Desde la simulación: pan entre 0 y PAN_MAX. Devuelve false si la cola estaba llena.
+    public boolean post(Sound sound, int pan) {
+        long t = tail.get();
+        if (t - cachedHead >= events.length) {
+            cachedHead = head.get();
+            if (t - cachedHead >= events.length) {
+                dropped++;
+                return false;
+            }
+        }
+        events[(int) t & mask] = sound.ordinal() << 8 | Math.max(0, Math.min(pan, PAN_MAX));
+        // Publica el evento (escritura ordenada, sin barrera completa)
+        tail.lazySet(t + 1);
+        return true;
+    }
+    
+    // Desde el mezclador: copia los eventos pendientes en "into" (hasta su longitud) y devuelve cuántos
+    public int drain(int[] into) {
+        long h = head.get();
+        int count = (int) Math.min(tail.get() - h, into.length);
+        for (int i = 0; i < count; i++) {
+            into[i] = events[(int) (h + i) & mask];
+        }
+        head.lazySet(h + count);
+        return count;
+    }
+    
+    static Sound soundOf(int event) {
+        return SOUNDS[event >>> 8];
+    }
+    
+    static int panOf(int event) {
+        return event & 0xFF;
+    }
+    
+    public long getDropped() {
+        return dropped;
+    }
+}
@@ -0,0 +1,136 @@
+// Detección continua de colisiones: tiempo de impacto de un círculo en movimiento contra un rectángulo
+
+class SweptCollision {
+    
+    // Resultado de la última consulta con impacto
+    private float time;
+    private float normalX;
+    private float normalY;
+    
+    // Calcula el primer impacto del círculo (cx, cy, r) desplazándose (dx, dy) contra la caja dada.
+    // Solo se consideran impactos con tiempo en [0, maxTime) y cuando el círculo se acerca a la superficie.
+    public boolean sweepCircleBox(float cx, float cy, float r, float dx, float dy,
+                                  float minX, float minY, float maxX, float maxY, float maxTime) {
+        // Punto de la caja más cercano al centro
+        float nearestX = clamp(cx, minX, maxX);
+        float nearestY = clamp(cy, minY, maxY);
+        float offsetX = cx - nearestX;
+        float offsetY = cy - nearestY;
+        
+        // Ya se solapan al inicio: resolver en t = 0 por el eje de menor penetración
+        if (offsetX * offsetX + offsetY * offsetY < r * r) {
+            float nx;
+            float ny;
+            if (offsetX != 0 || offsetY != 0) {
+                float length = (float) Math.sqrt(offsetX * offsetX + offsetY * offsetY);
+                nx = offsetX / length;
+                ny = offsetY / length;
+            } else {
+                // El centro está dentro de la caja
+                float left = cx - minX;
+                float right = maxX - cx;
+                float top = cy - minY;
+                float bottom = maxY - cy;
+                float min = Math.min(Math.min(left, right), Math.min(top, bottom));
+                nx = min == left ? -1 : (min == right ? 1 : 0);
+                ny = nx != 0 ? 0 : (min == top ? -1 : 1);
+            }
+            if (dx * nx + dy * ny >= 0) {
+                return false; // Ya se está alejando
+            }
+            return setHit(0, nx, ny);
+        }
+        
+        // Rayo contra la caja expandida por el radio (test de franjas)
+        float tEnter = Float.NEGATIVE_INFINITY;
+        float tExit = Float.POSITIVE_INFINITY;
+        float enterNormalX = 0;
+        float enterNormalY = 0;
+        
+        if (dx != 0) {
+            float t1 = (minX - r - cx) / dx;
+            float t2 = (maxX + r - cx) / dx;
+            float near = Math.min(t1, t2);
+            float far = Math.max(t1, t2);
+            if (near > tEnter) {
+                tEnter = near;
+                enterNormalX = dx > 0 ? -1 : 1;
+                enterNormalY = 0;
+            }
+            tExit = Math.min(tExit, far);
+        } else if (cx < minX - r || cx > maxX + r) {
+            return false;
+        }
+        
+        if (dy != 0) {
+            float t1 = (minY - r - cy) / dy;
+            float t2 = (maxY + r - cy) / dy;
+            float near = Math.min(t1, t2);
+            float far = Math.max(t1, t2);
+            if (near > tEnter) {
+                tEnter = near;
+                enterNormalX = 0;
+                enterNormalY = dy > 0 ? -1 : 1;
+            }
+            tExit = Math.min(tExit, far);
+        } else if (cy < minY - r || cy > maxY + r) {
+            return false;
+        }
+        
+        if (tEnter > tExit || tEnter < 0 || tEnter >= maxTime) {
+            return false;
+        }
+        
+        // Comprobar si el impacto es en una cara o en una esquina redondeada
+        float hitX = cx + dx * tEnter;
+        float hitY = cy + dy * tEnter;
+        boolean outsideX = hitX < minX || hitX > maxX;
+        boolean outsideY = hitY < minY || hitY > maxY;
+        if (!(outsideX && outsideY)) {
+            return setHit(tEnter, enterNormalX, enterNormalY);
+        }
+        
+        // Esquina: rayo contra el círculo de radio r centrado en la esquina
+        float cornerX = hitX < minX ? minX : maxX;
+        float cornerY = hitY < minY ? minY : maxY;
+        float fx = cx - cornerX;
+        float fy = cy - cornerY;
+        float a = dx * dx + dy * dy;
+        float b = fx * dx + fy * dy;
+        float c = fx * fx + fy * fy - r * r;
+        float discriminant = b * b - a * c;
+        if (discriminant < 0) {
+            return false;
+        }
+        float t = (-b - (float) Math.sqrt(discriminant)) / a;
+        if (t < 0 || t >= maxTime) {
+            return false;
+        }
+        float nx = (fx + dx * t) / r;
+        float ny = (fy + dy * t) / r;
+        return setHit(t, nx, ny);
+    }
+    
+    private boolean setHit(float time, float normalX, float normalY) {
+        this.time = time;
+        this.normalX = normalX;
+        this.normalY = normalY;
+        return true;
+    }
+    
+    private static float clamp(float value, float min, float max) {
+        return value < min ? min : (value > max ? max : value);
+    }
+    
+    public float getTime() {
+        return time;
+    }
+    
+    public float getNormalX() {
+        return normalX;
+    }
+    
+    public float getNormalY() {
+        return normalY;
+    }
+}
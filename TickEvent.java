@@ -0,0 +1,34 @@
+// Evento JFR de un tick de la simulación, con el tiempo de cada fase.
+// Se graba con las herramientas del JDK, p. ej. java -XX:StartFlightRecording=filename=juego.jfr ...
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+
+@Name("brickbreaker.Tick")
+@Label("Game Tick")
+@Category("Brick Breaker")
+@Description("Un paso fijo de la simulación")
+class TickEvent extends jdk.jfr.Event {
+    
+    @Label("Tick")
+    long tick;
+    
+    @Label("Balls")
+    int balls;
+    
+    @Label("Ball Movement")
+    @Timespan(Timespan.NANOSECONDS)
+    long ballNanos;
+    
+    @Label("Brick Collisions")
+    @Timespan(Timespan.NANOSECONDS)
+    long brickNanos;
+    
+    @Label("Power-ups")
+    @Timespan(Timespan.NANOSECONDS)
+    long powerUpNanos;
+}
@@ -0,0 +1,35 @@
+// Sigue a la bola descendente más baja con un desplazamiento que varía con el tiempo
+// para no repetir siempre el mismo ángulo de rebote
+
+class TrackingController implements PaddleController {
+    
+    @Override
+    public int nextPaddleX(GameEngine engine) {
+        return paddleXFor(engine);
+    }
+    
+    static int paddleXFor(GameEngine engine) {
+        BallPool balls = engine.getBalls();
+        float[] x = balls.getXs();
+        float[] y = balls.getYs();
+        float[] vy = balls.getVelocityYs();
+        float[] size = balls.getSizes();
+        
+        int target = -1;
+        for (int i = 0; i < balls.size(); i++) {
+            if (vy[i] > 0 && (target < 0 || y[i] > y[target])) {
+                target = i;
+            }
+        }
+        if (target < 0) {
+            return engine.getPaddle().getX() + engine.getPaddle().getWidth() / 2;
+        }
+        
+        return (int) (x[target] + size[target] / 2) + steeringOffset(engine);
+    }
+    
+    // Desplazamiento respecto al centro del paddle, de -2/6 a 2/6 de su ancho cada 4 segundos
+    static int steeringOffset(GameEngine engine) {
+        return (int) ((engine.getTick() / 240) % 5 - 2) * engine.getPaddle().getWidth() / 6;
+    }
+}
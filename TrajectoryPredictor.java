@@ -0,0 +1,85 @@
+// Predice dónde y cuándo llega cada bola a la altura del paddle extrapolando su trayectoria
+// con los rebotes en las paredes de forma analítica: la posición horizontal se "desdobla" como si
+// no hubiera paredes y luego se pliega en el ancho útil (onda triangular), sin simular tick a tick.
+// Las bolas que suben rebotan una vez en el techo; los ladrillos no se tienen en cuenta, así que
+// para ellas es una estimación. Es un bucle sin asignaciones sobre los arreglos de BallPool, por lo
+// que se puede evaluar en cada tick con miles de bolas.
+
+import java.util.Arrays;
+
+
+class TrajectoryPredictor {
+    
+    // Límite de la extrapolación (las bolas que no llegan no tienen una x útil)
+    private static final float MAX_TICKS = 1e6f;
+    
+    // Resultado por bola: x del centro al llegar y ticks que faltan (infinito si no se mueve en vertical)
+    private float[] landingX = new float[0];
+    private float[] landingTicks = new float[0];
+    private int count;
+    
+    // Calcula la llegada de todas las bolas a paddleTop (el borde superior del paddle)
+    public void predict(BallPool balls, float paddleTop, int width) {
+        count = balls.size();
+        if (landingX.length < count) {
+            landingX = Arrays.copyOf(landingX, Math.max(count, landingX.length * 2));
+            landingTicks = Arrays.copyOf(landingTicks, landingX.length);
+        }
+        float[] xs = balls.getXs();
+        float[] ys = balls.getYs();
+        float[] vxs = balls.getVelocityXs();
+        float[] vys = balls.getVelocityYs();
+        float[] sizes = balls.getSizes();
+        
+        // Sin saltos que dependan de cada bola (selecciones simples y abs) para que el
+        // predictor de saltos no falle con miles de bolas en direcciones aleatorias
+        for (int i = 0; i < count; i++) {
+            float r = sizes[i] / 2f;
+            float cy = ys[i] + r;
+            float vy = vys[i];
+            float bottom = paddleTop - r;
+            
+            // Distancia vertical: bajando, directo a la altura del paddle; subiendo, además
+            // la ida y vuelta hasta el techo
+            float up = vy < 0 ? 1 : 0;
+            float ticks = (bottom - cy + 2 * (cy - r) * up) / Math.abs(vy);
+            if (!(ticks >= 0)) {
+                // Parada en vertical o ya por debajo del paddle
+                ticks = Float.POSITIVE_INFINITY;
+            }
+            
+            // Plegar la x desdoblada en [r, width - r]: onda triangular de periodo 2 * span
+            float span = width - 2 * r;
+            float period = 2 * span;
+            float unfolded = xs[i] + vxs[i] * Math.min(ticks, MAX_TICKS);
+            float m = unfolded - period * (float) Math.floor(unfolded / period);
+            landingX[i] = r + span - Math.abs(m - span);
+            landingTicks[i] = ticks;
+        }
+    }
+    
+    // Bola que llegará antes (-1 si ninguna va a llegar)
+    public int firstToLand() {
+        int first = -1;
+        float best = Float.POSITIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            if (landingTicks[i] < best) {
+                best = landingTicks[i];
+                first = i;
+            }
+        }
+        return first;
+    }
+    
+    public float getLandingX(int i) {
+        return landingX[i];
+    }
+    
+    public float getLandingTicks(int i) {
+        return landingTicks[i];
+    }
+    
+    public int size() {
+        return count;
+    }
+}
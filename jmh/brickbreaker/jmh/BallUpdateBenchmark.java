@@ -0,0 +1,44 @@
+// Movimiento y colisiones de todas las bolas en un tick (BallUpdater), en serie y en paralelo
+
+package brickbreaker.jmh;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BallUpdateBenchmark {
+    
+    @Param({"1000", "10000", "50000"})
+    int balls;
+    
+    @Param({"serial", "parallel"})
+    String mode;
+    
+    private Runnable update;
+    
+    @Setup
+    public void setup() {
+        update = GameCases.get("BallUpdater.update", balls + " " + mode);
+    }
+    
+    @Benchmark
+    public void update() {
+        update.run();
+    }
+}
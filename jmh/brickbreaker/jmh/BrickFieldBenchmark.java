@@ -0,0 +1,50 @@
+// Colisión barrida de una bola contra el campo y comprobación de victoria, con campos de
+// 8x8, 64x64 y 256x256 ladrillos (mismos casos que Benchmarks)
+
+package brickbreaker.jmh;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BrickFieldBenchmark {
+    
+    @Param({"8", "64", "256"})
+    int size;
+    
+    private Runnable sweep;
+    private Runnable isEmpty;
+    
+    @Setup
+    public void setup() {
+        String params = size + "x" + size;
+        sweep = GameCases.get("BrickField.sweep", params);
+        isEmpty = GameCases.get("BrickField.isEmpty", params);
+    }
+    
+    @Benchmark
+    public void sweep() {
+        sweep.run();
+    }
+    
+    @Benchmark
+    public void isEmpty() {
+        isEmpty.run();
+    }
+}
@@ -0,0 +1,36 @@
+// Puente con los casos de Benchmarks: JMH no admite benchmarks en el paquete por defecto y desde
+// un paquete con nombre no se pueden usar sus clases, así que los casos se piden por reflexión una
+// vez (en @Setup) y se miden como Runnable. Cada caso escribe su resultado en un campo volátil,
+// así que el JIT no puede eliminar la operación.
+
+package brickbreaker.jmh;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+
+final class GameCases {
+    
+    private GameCases() {
+    }
+    
+    // Operación del caso "nombre parámetros" tal como lo imprime Benchmarks (p. ej. "BrickField.sweep", "8x8")
+    static Runnable get(String name, String params) {
+        Map<String, Runnable> cases;
+        try {
+            Method create = Class.forName("Benchmarks").getDeclaredMethod("createCases", String.class);
+            create.setAccessible(true);
+            @SuppressWarnings("unchecked")
+            Map<String, Runnable> created = (Map<String, Runnable>) create.invoke(null, name);
+            cases = created;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create benchmark " + name, e);
+        }
+        Runnable op = cases.get(name + " " + params);
+        if (op == null) {
+            throw new IllegalArgumentException("Unknown benchmark " + name + " " + params + ", expected one of "
+                    + cases.keySet());
+        }
+        return op;
+    }
+}
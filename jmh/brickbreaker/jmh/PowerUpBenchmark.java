@@ -0,0 +1,41 @@
+// Movimiento de los power-ups en caída y su intersección con el paddle
+
+package brickbreaker.jmh;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PowerUpBenchmark {
+    
+    @Param({"10", "1000"})
+    int count;
+    
+    private Runnable moveAndIntersect;
+    
+    @Setup
+    public void setup() {
+        moveAndIntersect = GameCases.get("PowerUp.move+intersects", String.valueOf(count));
+    }
+    
+    @Benchmark
+    public void moveAndIntersect() {
+        moveAndIntersect.run();
+    }
+}
@@ -0,0 +1,52 @@
+// Dibujo en un BufferedImage fuera de pantalla: GamePanel.paintComponent a 800x600, un cuadro con
+// la partida en marcha (tick, instantánea y dibujo) y el dibujo de una instantánea sin cambios
+
+package brickbreaker.jmh;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+    
+    private Runnable paintComponent;
+    private Runnable playingFrame;
+    private Runnable steadyFrame;
+    
+    @Setup
+    public void setup() {
+        paintComponent = GameCases.get("GamePanel.paintComponent", "800x600");
+        playingFrame = GameCases.get("GameEngine.update+render", "playing");
+        steadyFrame = GameCases.get("GameRenderer.render", "steady");
+    }
+    
+    @Benchmark
+    public void paintComponent() {
+        paintComponent.run();
+    }
+    
+    @Benchmark
+    public void playingFrame() {
+        playingFrame.run();
+    }
+    
+    @Benchmark
+    public void steadyFrame() {
+        steadyFrame.run();
+    }
+}